@@ -0,0 +1,79 @@
+package com.shopping.electronic.store.config;
+
+import com.shopping.electronic.store.metrics.HandlerTagsContributor;
+import com.shopping.electronic.store.metrics.SlowQueryLog;
+import com.shopping.electronic.store.metrics.SqlMetricsDataSource;
+import com.shopping.electronic.store.metrics.SqlMetricsInterceptor;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private SqlMetricsInterceptor sqlMetricsInterceptor;
+
+    /**
+     * Method to count JDBC statements and rows of every request
+     *
+     * @param registry
+     */
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        registry.addInterceptor(sqlMetricsInterceptor);
+    }
+
+    /**
+     * Method to tag request latency histograms with controller method
+     *
+     * @return
+     */
+    @Bean
+    public HandlerTagsContributor handlerTagsContributor() {
+        return new HandlerTagsContributor();
+    }
+
+    /**
+     * Method to create slow query log, replaces logging every statement on the request thread.
+     * Static like the post processor below, so creating the data source does not pull in this configuration
+     *
+     * @param thresholdMillis
+     * @param sampleRate
+     * @param queueCapacity
+     * @return
+     */
+    @Bean
+    public static SlowQueryLog slowQueryLog(@Value("${sql.slow-query.threshold-ms}") final long thresholdMillis,
+                                            @Value("${sql.slow-query.sample-rate}") final double sampleRate,
+                                            @Value("${sql.slow-query.queue-capacity}") final int queueCapacity) {
+        return new SlowQueryLog(thresholdMillis, sampleRate, queueCapacity);
+    }
+
+    /**
+     * Method to wrap every data source so its statements are counted and timed
+     *
+     * @param slowQueryLog
+     * @return
+     */
+    @Bean
+    public static BeanPostProcessor sqlMetricsDataSourcePostProcessor(final ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof SqlMetricsDataSource)) {
+                    return new SqlMetricsDataSource((DataSource) bean, slowQueryLog.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,14 +1,64 @@
 package com.shopping.electronic.store.config;
 
-import org.modelmapper.ModelMapper;
+import com.shopping.electronic.store.dto.CategoryDto;
+import com.shopping.electronic.store.dto.OrderDto;
+import com.shopping.electronic.store.dto.ProductDto;
+import com.shopping.electronic.store.util.IdGenerator;
+import com.shopping.electronic.store.util.IdempotentRequests;
+import com.shopping.electronic.store.util.RandomIdGenerator;
+import com.shopping.electronic.store.util.SingleFlight;
+import com.shopping.electronic.store.util.TimeOrderedIdGenerator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@EnableCaching
 public class ProjectConfig {
 
+    /**
+     * Method to pick primary key generator for new rows, time-ordered or random
+     *
+     * @param generator
+     * @return
+     */
+    @Bean
+    public IdGenerator idGenerator(@Value("${ids.generator}") final String generator) {
+        return "random".equals(generator) ? new RandomIdGenerator() : new TimeOrderedIdGenerator();
+    }
+
+    /**
+     * Method to keep created orders by idempotency key, so retried requests get the first order back
+     *
+     * @param ttlMinutes
+     * @param maxKeys
+     * @return
+     */
+    @Bean
+    public IdempotentRequests<OrderDto> orderRequests(@Value("${order.idempotency.ttl-minutes}") final long ttlMinutes,
+                                                      @Value("${order.idempotency.max-keys}") final long maxKeys) {
+        return new IdempotentRequests<>(ttlMinutes, maxKeys);
+    }
+
+    /**
+     * Method to coalesce concurrent product detail loads, counted under single.flight.* with name product
+     *
+     * @return
+     */
+    @Bean
+    public SingleFlight<ProductDto> productLoads() {
+        return new SingleFlight<>("product");
+    }
+
+    /**
+     * Method to coalesce concurrent category detail loads, counted under single.flight.* with name category
+     *
+     * @return
+     */
     @Bean
-    public ModelMapper mapper() {
-        return new ModelMapper();
+    public SingleFlight<CategoryDto> categoryLoads() {
+        return new SingleFlight<>("category");
     }
 }
@@ -0,0 +1,63 @@
+package com.shopping.electronic.store.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+// Opt-in mode running every request on its own virtual thread, enabled with spring.threads.virtual.enabled
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    // tomcat does not stop an executor it was given
+    private final ExecutorService virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Method to replace tomcat's bounded worker pool with a virtual thread per request
+     *
+     * @return
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadExecutorCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    // web server is stopped before, waits for requests still running
+    @PreDestroy
+    public void closeVirtualThreadExecutor() {
+        virtualThreadExecutor.close();
+    }
+
+    /**
+     * Method to bound callers waiting for a pooled connection to a multiple of pool size
+     *
+     * @param poolSize
+     * @param waitingPerConnection
+     * @param waitMillis
+     * @return
+     */
+    @Bean
+    public static BeanPostProcessor boundedWaitDataSourcePostProcessor(@Value("${spring.datasource.hikari.maximum-pool-size}") final int poolSize,
+                                                                       @Value("${virtual-threads.waiting-per-connection}") final int waitingPerConnection,
+                                                                       @Value("${virtual-threads.wait-ms}") final long waitMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof BoundedWaitDataSource)) {
+                    return new BoundedWaitDataSource((DataSource) bean, poolSize * (1 + waitingPerConnection), waitMillis);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -6,10 +6,11 @@ import com.shopping.electronic.store.service.CategoryService;
 import com.shopping.electronic.store.service.FileService;
 import com.shopping.electronic.store.service.ProductService;
 import com.shopping.electronic.store.util.ApiResponse;
+import com.shopping.electronic.store.util.BatchResult;
+import com.shopping.electronic.store.util.CursorPage;
 import com.shopping.electronic.store.util.ImageResponse;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.List;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -20,7 +21,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -33,6 +33,7 @@ import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
@@ -122,6 +123,25 @@ public class CategoryController {
         return new ResponseEntity<>(categoryDtoList, HttpStatus.OK);
     }
 
+    /**
+     * Method to fetch all product categories one slice at a time using cursor returned with previous slice
+     *
+     * @param cursor
+     * @param pageSize
+     * @param sortBy
+     * @param sortDir
+     * @return
+     */
+    @Operation(summary = "fetch all product categories with cursor pagination")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<CategoryDto>> getAllCategorySlice(@RequestParam(value = "cursor", required = false) final String cursor,
+                                                                       @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize,
+                                                                       @RequestParam(value = "sortBy", defaultValue = "title", required = false) final String sortBy,
+                                                                       @RequestParam(value = "sortDir", defaultValue = "ASC", required = false) final String sortDir) {
+        CursorPage<CategoryDto> page = categoryService.getAllCategory(cursor, pageSize, sortBy, sortDir);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
     /**
      * Method to fetch category
      *
@@ -135,16 +155,33 @@ public class CategoryController {
         return new ResponseEntity<>(categoryDto, HttpStatus.OK);
     }
 
+    /**
+     * Method to fetch categories of many ids at once, found ones are returned in request order and unknown ids as missing
+     *
+     * @param categoryIds
+     * @return
+     */
+    @Operation(summary = "fetch product categories of many categoryIds at once")
+    @GetMapping("/batch")
+    public ResponseEntity<BatchResult<CategoryDto>> getCategories(@RequestParam("ids") final List<String> categoryIds) {
+        BatchResult<CategoryDto> result = categoryService.getCategories(categoryIds);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
     /**
      * Method to search category using keyword
      *
      * @param keyword
+     * @param pageNumber
+     * @param pageSize
      * @return
      */
     @Operation(summary = "search product category using keyword")
     @GetMapping("/search/{keyword}")
-    public ResponseEntity<List<CategoryDto>> searchCategory(@PathVariable(value = "keyword") final String keyword) {
-        List<CategoryDto> categoryDtoList = categoryService.searchCategory(keyword);
+    public ResponseEntity<List<CategoryDto>> searchCategory(@PathVariable(value = "keyword") final String keyword,
+                                                            @RequestParam(value = "pageNumber", defaultValue = "0", required = false) final int pageNumber,
+                                                            @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize) {
+        List<CategoryDto> categoryDtoList = categoryService.searchCategory(keyword, pageNumber, pageSize);
         return new ResponseEntity<>(categoryDtoList, HttpStatus.OK);
     }
 
@@ -179,17 +216,19 @@ public class CategoryController {
      * Method to fetch category image
      *
      * @param categoryId
-     * @param httpServletResponse
+     * @param size
+     * @param request
+     * @param response
      * @throws IOException
      */
     @Operation(summary = "fetch product category image using categoryID")
-    @GetMapping(value = "/image/{categoryId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/image/{categoryId}")
     public void getCategoryImage(@PathVariable("categoryId") final String categoryId,
-                                 HttpServletResponse httpServletResponse) throws IOException {
+                                 @RequestParam(value = "size", required = false) final String size,
+                                 final HttpServletRequest request,
+                                 final HttpServletResponse response) throws IOException {
         CategoryDto categoryDto = categoryService.getCategory(categoryId);
-        InputStream image = fileService.getResource(imageUploadPath, categoryDto.getCoverImage());
-        httpServletResponse.setContentType(MediaType.IMAGE_JPEG_VALUE);
-        StreamUtils.copy(image, httpServletResponse.getOutputStream());
+        fileService.serveImage(imageUploadPath, categoryDto.getCoverImage(), size, request, response);
     }
 
     /**
@@ -230,16 +269,42 @@ public class CategoryController {
      * @param pageSize
      * @param sortBy
      * @param sortDir
+     * @param fields     optional, only id and these fields of every product are returned
      * @return
      */
     @Operation(summary = "fetch all products of category using categoryId")
     @GetMapping("/{categoryId}/products")
-    public ResponseEntity<List<ProductDto>> getAllProductOfCategory(@PathVariable("categoryId") final String categoryId,
-                                                                    @RequestParam(value = "pageNumber", defaultValue = "0", required = false) final int pageNumber,
-                                                                    @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize,
-                                                                    @RequestParam(value = "sortBy", defaultValue = "title", required = false) final String sortBy,
-                                                                    @RequestParam(value = "sortDir", defaultValue = "ASC", required = false) final String sortDir) {
+    public ResponseEntity<List<?>> getAllProductOfCategory(@PathVariable("categoryId") final String categoryId,
+                                                           @RequestParam(value = "pageNumber", defaultValue = "0", required = false) final int pageNumber,
+                                                           @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize,
+                                                           @RequestParam(value = "sortBy", defaultValue = "title", required = false) final String sortBy,
+                                                           @RequestParam(value = "sortDir", defaultValue = "ASC", required = false) final String sortDir,
+                                                           @RequestParam(value = "fields", required = false) final List<String> fields) {
+        if (fields != null) {
+            return new ResponseEntity<>(productService.getAllProductOfCategory(categoryId, fields, pageNumber, pageSize, sortBy, sortDir), HttpStatus.OK);
+        }
         List<ProductDto> productDtoList = productService.getAllProductOfCategory(categoryId, pageNumber, pageSize, sortBy, sortDir);
         return new ResponseEntity<>(productDtoList, HttpStatus.OK);
     }
+
+    /**
+     * Method to fetch all products of category using categoryId one slice at a time with cursor returned with previous slice
+     *
+     * @param categoryId
+     * @param cursor
+     * @param pageSize
+     * @param sortBy
+     * @param sortDir
+     * @return
+     */
+    @Operation(summary = "fetch all products of category using categoryId with cursor pagination")
+    @GetMapping("/{categoryId}/products/cursor")
+    public ResponseEntity<CursorPage<ProductDto>> getAllProductOfCategorySlice(@PathVariable("categoryId") final String categoryId,
+                                                                               @RequestParam(value = "cursor", required = false) final String cursor,
+                                                                               @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize,
+                                                                               @RequestParam(value = "sortBy", defaultValue = "title", required = false) final String sortBy,
+                                                                               @RequestParam(value = "sortDir", defaultValue = "ASC", required = false) final String sortDir) {
+        CursorPage<ProductDto> page = productService.getAllProductOfCategory(categoryId, cursor, pageSize, sortBy, sortDir);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
 }
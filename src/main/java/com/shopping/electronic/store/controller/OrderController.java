@@ -2,14 +2,21 @@ package com.shopping.electronic.store.controller;
 
 import com.shopping.electronic.store.dto.CreateOrderRequest;
 import com.shopping.electronic.store.dto.OrderDto;
+import com.shopping.electronic.store.service.ExportService;
 import com.shopping.electronic.store.service.OrderService;
 import com.shopping.electronic.store.util.ApiResponse;
+import com.shopping.electronic.store.util.CursorPage;
+import com.shopping.electronic.store.util.DataFormat;
+import com.shopping.electronic.store.util.IdempotentRequests;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -17,10 +24,13 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
+
 @RestController
 @RequestMapping("/orders")
 @Tag(
@@ -31,17 +41,26 @@ public class OrderController {
 
     @Autowired
     private OrderService orderService;
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private IdempotentRequests<OrderDto> orderRequests;
 
     /**
-     * Method to create new order
+     * Method to create new order, a retry with the same Idempotency-Key gets the order created first
      *
      * @param createOrderRequest
+     * @param idempotencyKey
      * @return
      */
     @Operation(summary = "create new order")
     @PostMapping
-    public ResponseEntity<OrderDto> createOrder(@RequestBody final CreateOrderRequest createOrderRequest) {
-        OrderDto orderDto = orderService.createOrder(createOrderRequest);
+    public ResponseEntity<OrderDto> createOrder(@RequestBody final CreateOrderRequest createOrderRequest,
+                                                @RequestHeader(name = "Idempotency-Key", required = false) final String idempotencyKey) {
+        OrderDto orderDto = idempotencyKey == null
+                ? orderService.createOrder(createOrderRequest)
+                : orderRequests.execute(createOrderRequest.getUserId() + ":" + idempotencyKey, createOrderRequest,
+                        () -> orderService.createOrder(createOrderRequest));
         return new ResponseEntity<>(orderDto, HttpStatus.CREATED);
     }
 
@@ -63,6 +82,24 @@ public class OrderController {
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
 
+    /**
+     * Method to export all orders, rows are streamed to the response as they are read
+     *
+     * @param format   ndjson or csv
+     * @param response
+     * @throws IOException
+     */
+    @Operation(summary = "export all orders as ndjson or csv")
+    @GetMapping("/export")
+    public void exportOrders(@RequestParam(value = "format", defaultValue = "ndjson", required = false) final String format,
+                             final HttpServletResponse response) throws IOException {
+        DataFormat dataFormat = DataFormat.fromParameter(format);
+        response.setContentType(dataFormat.getMediaType().toString());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, dataFormat.contentDisposition("orders"));
+        exportService.exportOrders(dataFormat, response.getOutputStream());
+    }
+
     /**
      * Method to fetch all orders of user using userId
      *
@@ -94,4 +131,23 @@ public class OrderController {
         List<OrderDto> orders = orderService.getAllOrders(pageNumber, pageSize, sortBy, sortDir);
         return new ResponseEntity<>(orders, HttpStatus.CREATED);
     }
+
+    /**
+     * Method to fetch all orders details of all users one slice at a time using cursor returned with previous slice
+     *
+     * @param cursor
+     * @param pageSize
+     * @param sortBy
+     * @param sortDir
+     * @return
+     */
+    @Operation(summary = "fetch all orders details of all users with cursor pagination")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<OrderDto>> getAllOrdersSlice(@RequestParam(value = "cursor", required = false) final String cursor,
+                                                                  @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize,
+                                                                  @RequestParam(value = "sortBy", defaultValue = "orderedDate", required = false) final String sortBy,
+                                                                  @RequestParam(value = "sortDir", defaultValue = "ASC", required = false) final String sortDir) {
+        CursorPage<OrderDto> page = orderService.getAllOrders(cursor, pageSize, sortBy, sortDir);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
 }
@@ -1,34 +1,45 @@
 package com.shopping.electronic.store.controller;
 
 import com.shopping.electronic.store.dto.ProductDto;
+import com.shopping.electronic.store.dto.ProductFacetsDto;
+import com.shopping.electronic.store.dto.ProductQuery;
+import com.shopping.electronic.store.service.ExportService;
 import com.shopping.electronic.store.service.FileService;
+import com.shopping.electronic.store.service.ProductFacetService;
 import com.shopping.electronic.store.service.ProductService;
 import com.shopping.electronic.store.util.ApiResponse;
+import com.shopping.electronic.store.util.BatchResult;
+import com.shopping.electronic.store.util.CursorPage;
+import com.shopping.electronic.store.util.DataFormat;
 import com.shopping.electronic.store.util.ImageResponse;
+import com.shopping.electronic.store.util.ImportReport;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
@@ -44,6 +55,10 @@ public class ProductController {
     private ProductService productService;
     @Autowired
     private FileService fileService;
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private ProductFacetService productFacetService;
     @Value("${product.image.path}")
     private String imageUploadPath;
 
@@ -60,6 +75,40 @@ public class ProductController {
         return new ResponseEntity<>(productDto1, HttpStatus.CREATED);
     }
 
+    /**
+     * Method to import many products at once, body is read as a stream so feeds of any size can be sent
+     *
+     * @param contentType application/x-ndjson or text/csv
+     * @param request
+     * @return
+     * @throws IOException
+     */
+    @Operation(summary = "bulk import products from ndjson or csv, invalid rows are reported without aborting the import")
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<ImportReport> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) final String contentType,
+                                                       final HttpServletRequest request) throws IOException {
+        ImportReport report = productService.importProducts(request.getInputStream(), DataFormat.fromContentType(contentType));
+        return new ResponseEntity<>(report, HttpStatus.OK);
+    }
+
+    /**
+     * Method to export all products, rows are streamed to the response as they are read
+     *
+     * @param format   ndjson or csv
+     * @param response
+     * @throws IOException
+     */
+    @Operation(summary = "export all products as ndjson or csv")
+    @GetMapping("/export")
+    public void exportProducts(@RequestParam(value = "format", defaultValue = "ndjson", required = false) final String format,
+                               final HttpServletResponse response) throws IOException {
+        DataFormat dataFormat = DataFormat.fromParameter(format);
+        response.setContentType(dataFormat.getMediaType().toString());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, dataFormat.contentDisposition("products"));
+        exportService.exportProducts(dataFormat, response.getOutputStream());
+    }
+
     /**
      * Method to update product details
      *
@@ -102,18 +151,42 @@ public class ProductController {
      * @param pageSize
      * @param sortBy
      * @param sortDir
+     * @param fields   optional, only id and these fields of every product are returned
      * @return
      */
     @Operation(summary = "fetch all products details")
     @GetMapping
-    public ResponseEntity<List<ProductDto>> getAllProduct(@RequestParam(value = "pageNumber", defaultValue = "0", required = false) final int pageNumber,
-                                                          @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize,
-                                                          @RequestParam(value = "sortBy", defaultValue = "title", required = false) final String sortBy,
-                                                          @RequestParam(value = "sortDir", defaultValue = "ASC", required = false) final String sortDir) {
+    public ResponseEntity<List<?>> getAllProduct(@RequestParam(value = "pageNumber", defaultValue = "0", required = false) final int pageNumber,
+                                                 @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize,
+                                                 @RequestParam(value = "sortBy", defaultValue = "title", required = false) final String sortBy,
+                                                 @RequestParam(value = "sortDir", defaultValue = "ASC", required = false) final String sortDir,
+                                                 @RequestParam(value = "fields", required = false) final List<String> fields) {
+        if (fields != null) {
+            return new ResponseEntity<>(productService.getAllProduct(fields, pageNumber, pageSize, sortBy, sortDir), HttpStatus.OK);
+        }
         List<ProductDto> productDtoList = productService.getAllProduct(pageNumber, pageSize, sortBy, sortDir);
         return new ResponseEntity<>(productDtoList, HttpStatus.OK);
     }
 
+    /**
+     * Method to fetch all products details one slice at a time using cursor returned with previous slice
+     *
+     * @param cursor
+     * @param pageSize
+     * @param sortBy
+     * @param sortDir
+     * @return
+     */
+    @Operation(summary = "fetch all products details with cursor pagination")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<ProductDto>> getAllProductSlice(@RequestParam(value = "cursor", required = false) final String cursor,
+                                                                     @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize,
+                                                                     @RequestParam(value = "sortBy", defaultValue = "title", required = false) final String sortBy,
+                                                                     @RequestParam(value = "sortDir", defaultValue = "ASC", required = false) final String sortDir) {
+        CursorPage<ProductDto> page = productService.getAllProduct(cursor, pageSize, sortBy, sortDir);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
     /**
      * Method to fetch product details using productId
      *
@@ -127,6 +200,19 @@ public class ProductController {
         return new ResponseEntity<>(productDto, HttpStatus.OK);
     }
 
+    /**
+     * Method to fetch products of many ids at once, found ones are returned in request order and unknown ids as missing
+     *
+     * @param productIds
+     * @return
+     */
+    @Operation(summary = "fetch product details of many productIds at once")
+    @GetMapping("/batch")
+    public ResponseEntity<BatchResult<ProductDto>> getProducts(@RequestParam("ids") final List<String> productIds) {
+        BatchResult<ProductDto> result = productService.getProducts(productIds);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
     /**
      * Method to fetch all products details which are live
      *
@@ -134,18 +220,42 @@ public class ProductController {
      * @param pageSize
      * @param sortBy
      * @param sortDir
+     * @param fields   optional, only id and these fields of every product are returned
      * @return
      */
     @Operation(summary = "fetch all products details which are live")
     @GetMapping("/live")
-    public ResponseEntity<List<ProductDto>> getAllLiveProduct(@RequestParam(value = "pageNumber", defaultValue = "0", required = false) final int pageNumber,
-                                                              @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize,
-                                                              @RequestParam(value = "sortBy", defaultValue = "title", required = false) final String sortBy,
-                                                              @RequestParam(value = "sortDir", defaultValue = "ASC", required = false) final String sortDir) {
+    public ResponseEntity<List<?>> getAllLiveProduct(@RequestParam(value = "pageNumber", defaultValue = "0", required = false) final int pageNumber,
+                                                     @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize,
+                                                     @RequestParam(value = "sortBy", defaultValue = "title", required = false) final String sortBy,
+                                                     @RequestParam(value = "sortDir", defaultValue = "ASC", required = false) final String sortDir,
+                                                     @RequestParam(value = "fields", required = false) final List<String> fields) {
+        if (fields != null) {
+            return new ResponseEntity<>(productService.getAllLiveProduct(fields, pageNumber, pageSize, sortBy, sortDir), HttpStatus.OK);
+        }
         List<ProductDto> productDtoList = productService.getAllLiveProduct(pageNumber, pageSize, sortBy, sortDir);
         return new ResponseEntity<>(productDtoList, HttpStatus.OK);
     }
 
+    /**
+     * Method to fetch all products details which are live one slice at a time using cursor returned with previous slice
+     *
+     * @param cursor
+     * @param pageSize
+     * @param sortBy
+     * @param sortDir
+     * @return
+     */
+    @Operation(summary = "fetch all products details which are live with cursor pagination")
+    @GetMapping("/live/cursor")
+    public ResponseEntity<CursorPage<ProductDto>> getAllLiveProductSlice(@RequestParam(value = "cursor", required = false) final String cursor,
+                                                                         @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize,
+                                                                         @RequestParam(value = "sortBy", defaultValue = "title", required = false) final String sortBy,
+                                                                         @RequestParam(value = "sortDir", defaultValue = "ASC", required = false) final String sortDir) {
+        CursorPage<ProductDto> page = productService.getAllLiveProduct(cursor, pageSize, sortBy, sortDir);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
     /**
      * Method to fetch all products details which are in stock
      *
@@ -153,28 +263,117 @@ public class ProductController {
      * @param pageSize
      * @param sortBy
      * @param sortDir
+     * @param fields   optional, only id and these fields of every product are returned
      * @return
      */
     @Operation(summary = "fetch all products details which are in stock")
     @GetMapping("/stock")
-    public ResponseEntity<List<ProductDto>> getAllStockProduct(@RequestParam(value = "pageNumber", defaultValue = "0", required = false) final int pageNumber,
-                                                               @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize,
-                                                               @RequestParam(value = "sortBy", defaultValue = "title", required = false) final String sortBy,
-                                                               @RequestParam(value = "sortDir", defaultValue = "ASC", required = false) final String sortDir) {
+    public ResponseEntity<List<?>> getAllStockProduct(@RequestParam(value = "pageNumber", defaultValue = "0", required = false) final int pageNumber,
+                                                      @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize,
+                                                      @RequestParam(value = "sortBy", defaultValue = "title", required = false) final String sortBy,
+                                                      @RequestParam(value = "sortDir", defaultValue = "ASC", required = false) final String sortDir,
+                                                      @RequestParam(value = "fields", required = false) final List<String> fields) {
+        if (fields != null) {
+            return new ResponseEntity<>(productService.getAllStockProduct(fields, pageNumber, pageSize, sortBy, sortDir), HttpStatus.OK);
+        }
         List<ProductDto> productDtoList = productService.getAllStockProduct(pageNumber, pageSize, sortBy, sortDir);
         return new ResponseEntity<>(productDtoList, HttpStatus.OK);
     }
 
+    /**
+     * Method to fetch all products details which are in stock one slice at a time using cursor returned with previous slice
+     *
+     * @param cursor
+     * @param pageSize
+     * @param sortBy
+     * @param sortDir
+     * @return
+     */
+    @Operation(summary = "fetch all products details which are in stock with cursor pagination")
+    @GetMapping("/stock/cursor")
+    public ResponseEntity<CursorPage<ProductDto>> getAllStockProductSlice(@RequestParam(value = "cursor", required = false) final String cursor,
+                                                                          @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize,
+                                                                          @RequestParam(value = "sortBy", defaultValue = "title", required = false) final String sortBy,
+                                                                          @RequestParam(value = "sortDir", defaultValue = "ASC", required = false) final String sortDir) {
+        CursorPage<ProductDto> page = productService.getAllStockProduct(cursor, pageSize, sortBy, sortDir);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    /**
+     * Method to fetch products matching all given filters one slice at a time using cursor returned with previous slice,
+     * filters are passed as request parameters (categoryId, minPrice, maxPrice, minDiscountedPrice, maxDiscountedPrice,
+     * live, stock, addedFrom, addedTo)
+     *
+     * @param productQuery
+     * @param cursor
+     * @param pageSize
+     * @param sortBy
+     * @param sortDir
+     * @return
+     */
+    @Operation(summary = "fetch products matching category, price, discounted price, live, stock and added date filters")
+    @GetMapping("/query")
+    public ResponseEntity<CursorPage<ProductDto>> queryProducts(@ModelAttribute final ProductQuery productQuery,
+                                                                @RequestParam(value = "cursor", required = false) final String cursor,
+                                                                @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize,
+                                                                @RequestParam(value = "sortBy", defaultValue = "title", required = false) final String sortBy,
+                                                                @RequestParam(value = "sortDir", defaultValue = "ASC", required = false) final String sortDir) {
+        CursorPage<ProductDto> page = productService.queryProducts(productQuery, cursor, pageSize, sortBy, sortDir);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    /**
+     * Method to count products matching given filters per category, price bucket, live and stock
+     *
+     * @param categoryId
+     * @param priceBucket
+     * @param live
+     * @param stock
+     * @return
+     */
+    @Operation(summary = "fetch product counts per category, price bucket, live and stock for given filters")
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetsDto> getProductFacets(@RequestParam(value = "categoryId", required = false) final String categoryId,
+                                                             @RequestParam(value = "priceBucket", required = false) final String priceBucket,
+                                                             @RequestParam(value = "live", required = false) final Boolean live,
+                                                             @RequestParam(value = "stock", required = false) final Boolean stock) {
+        ProductFacetsDto productFacetsDto = productFacetService.getFacets(categoryId, priceBucket, live, stock);
+        return new ResponseEntity<>(productFacetsDto, HttpStatus.OK);
+    }
+
+    /**
+     * Method to rebuild facet index from database, e.g. after products were changed outside this instance
+     *
+     * @return
+     */
+    @Operation(summary = "rebuild product facet counts from database")
+    @PostMapping("/facets/rebuild")
+    public ResponseEntity<ApiResponse> rebuildProductFacets() {
+        int products = productFacetService.rebuild();
+        ApiResponse apiResponse =
+                ApiResponse
+                        .builder()
+                        .status(HttpStatus.OK)
+                        .success(true)
+                        .message("Product facets rebuilt with " + products + " products !!!")
+                        .build();
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
     /**
      * Method to search product using keyword
      *
      * @param keyword
+     * @param pageNumber
+     * @param pageSize
      * @return
      */
     @Operation(summary = "search product details user keyword")
     @GetMapping("/search/{keyword}")
-    public ResponseEntity<List<ProductDto>> searchProduct(@PathVariable("keyword") final String keyword) {
-        List<ProductDto> productDtoList = productService.searchProduct(keyword);
+    public ResponseEntity<List<ProductDto>> searchProduct(@PathVariable("keyword") final String keyword,
+                                                          @RequestParam(value = "pageNumber", defaultValue = "0", required = false) final int pageNumber,
+                                                          @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize) {
+        List<ProductDto> productDtoList = productService.searchProduct(keyword, pageNumber, pageSize);
         return new ResponseEntity<>(productDtoList, HttpStatus.OK);
     }
 
@@ -191,10 +390,8 @@ public class ProductController {
     public ResponseEntity<ImageResponse> uploadProductImage(@PathVariable("productId") final String productId,
                                                             @RequestParam("productImage") final MultipartFile image) throws IOException {
         String imageName = fileService.uploadFile(image, imageUploadPath);
-        // saving image name with user data
-        ProductDto productDto = productService.getProduct(productId);
-        productDto.setProductImage(imageName);
-        productService.updateProduct(productId, productDto);
+        // saving image name with product data
+        productService.updateProductImage(productId, imageName);
 
         ImageResponse imageResponse = ImageResponse.builder()
                 .imageName(imageName)
@@ -209,16 +406,18 @@ public class ProductController {
      * Method to fetch product image using productId
      *
      * @param productId
-     * @param httpServletResponse
+     * @param size
+     * @param request
+     * @param response
      * @throws IOException
      */
     @Operation(summary = "fetch product image using productId")
-    @GetMapping(value = "/image/{productId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/image/{productId}")
     public void getProductImage(@PathVariable("productId") final String productId,
-                                HttpServletResponse httpServletResponse) throws IOException {
+                                @RequestParam(value = "size", required = false) final String size,
+                                final HttpServletRequest request,
+                                final HttpServletResponse response) throws IOException {
         ProductDto productDto = productService.getProduct(productId);
-        InputStream image = fileService.getResource(imageUploadPath, productDto.getProductImage());
-        httpServletResponse.setContentType(MediaType.IMAGE_JPEG_VALUE);
-        StreamUtils.copy(image, httpServletResponse.getOutputStream());
+        fileService.serveImage(imageUploadPath, productDto.getProductImage(), size, request, response);
     }
 }
@@ -1,23 +1,27 @@
 package com.shopping.electronic.store.controller;
 
 import com.shopping.electronic.store.dto.UserDto;
+import com.shopping.electronic.store.service.ExportService;
 import com.shopping.electronic.store.service.FileService;
 import com.shopping.electronic.store.service.UserService;
 import com.shopping.electronic.store.util.ApiResponse;
+import com.shopping.electronic.store.util.BatchResult;
+import com.shopping.electronic.store.util.CursorPage;
+import com.shopping.electronic.store.util.DataFormat;
 import com.shopping.electronic.store.util.ImageResponse;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -29,6 +33,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
@@ -44,6 +49,8 @@ public class UserController {
     private UserService userService;
     @Autowired
     private FileService fileService;
+    @Autowired
+    private ExportService exportService;
     @Value("${user.profile.image.path}")
     private String imageUploadPath;
 
@@ -114,6 +121,43 @@ public class UserController {
         return new ResponseEntity<>(userDtoList, HttpStatus.OK);
     }
 
+    /**
+     * Method to fetch all users profile one slice at a time using cursor returned with previous slice
+     *
+     * @param cursor
+     * @param pageSize
+     * @param sortBy
+     * @param sortDir
+     * @return
+     */
+    @Operation(summary = "get all users with cursor pagination")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<UserDto>> getAllUserSlice(@RequestParam(value = "cursor", required = false) final String cursor,
+                                                               @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize,
+                                                               @RequestParam(value = "sortBy", defaultValue = "name", required = false) final String sortBy,
+                                                               @RequestParam(value = "sortDir", defaultValue = "ASC", required = false) final String sortDir) {
+        CursorPage<UserDto> page = userService.getAllUser(cursor, pageSize, sortBy, sortDir);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    /**
+     * Method to export all users, rows are streamed to the response as they are read
+     *
+     * @param format   ndjson or csv
+     * @param response
+     * @throws IOException
+     */
+    @Operation(summary = "export all users as ndjson or csv")
+    @GetMapping("/export")
+    public void exportUsers(@RequestParam(value = "format", defaultValue = "ndjson", required = false) final String format,
+                            final HttpServletResponse response) throws IOException {
+        DataFormat dataFormat = DataFormat.fromParameter(format);
+        response.setContentType(dataFormat.getMediaType().toString());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, dataFormat.contentDisposition("users"));
+        exportService.exportUsers(dataFormat, response.getOutputStream());
+    }
+
     /**
      * Method to search user profile using userID
      *
@@ -127,6 +171,19 @@ public class UserController {
         return new ResponseEntity<>(userDto, HttpStatus.OK);
     }
 
+    /**
+     * Method to fetch user profiles of many ids at once, found ones are returned in request order and unknown ids as missing
+     *
+     * @param userIds
+     * @return
+     */
+    @Operation(summary = "fetch users of many userIds at once")
+    @GetMapping("/batch")
+    public ResponseEntity<BatchResult<UserDto>> getUsersByIds(@RequestParam("ids") final List<String> userIds) {
+        BatchResult<UserDto> result = userService.getUsersByIds(userIds);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
     /**
      * Method to search user profile using email
      *
@@ -144,12 +201,16 @@ public class UserController {
      * Method to search user profile
      *
      * @param keyword
+     * @param pageNumber
+     * @param pageSize
      * @return
      */
     @Operation(summary = "search user by any keyword")
     @GetMapping("/search/{keyword}")
-    public ResponseEntity<List<UserDto>> searchUser(@PathVariable(value = "keyword") final String keyword) {
-        List<UserDto> userDtoList = userService.searchUser(keyword);
+    public ResponseEntity<List<UserDto>> searchUser(@PathVariable(value = "keyword") final String keyword,
+                                                    @RequestParam(value = "pageNumber", defaultValue = "0", required = false) final int pageNumber,
+                                                    @RequestParam(value = "pageSize", defaultValue = "10", required = false) final int pageSize) {
+        List<UserDto> userDtoList = userService.searchUser(keyword, pageNumber, pageSize);
         return new ResponseEntity<>(userDtoList, HttpStatus.OK);
     }
 
@@ -184,16 +245,18 @@ public class UserController {
      * Method to fetch user profile image
      *
      * @param userId
-     * @param httpServletResponse
+     * @param size
+     * @param request
+     * @param response
      * @throws IOException
      */
     @Operation(summary = "get user image")
-    @GetMapping(value = "/image/{userId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/image/{userId}")
     public void getUserImage(@PathVariable("userId") final String userId,
-                             HttpServletResponse httpServletResponse) throws IOException {
+                             @RequestParam(value = "size", required = false) final String size,
+                             final HttpServletRequest request,
+                             final HttpServletResponse response) throws IOException {
         UserDto userDto = userService.getUserById(userId);
-        InputStream image = fileService.getResource(imageUploadPath, userDto.getImageName());
-        httpServletResponse.setContentType(MediaType.IMAGE_JPEG_VALUE);
-        StreamUtils.copy(image, httpServletResponse.getOutputStream());
+        fileService.serveImage(imageUploadPath, userDto.getImageName(), size, request, response);
     }
 }
@@ -2,6 +2,7 @@ package com.shopping.electronic.store.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -11,6 +12,8 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+// a retry with the same idempotency key has to equal the first request
+@EqualsAndHashCode
 public class CreateOrderRequest {
     private String cartId;
     private String userId;
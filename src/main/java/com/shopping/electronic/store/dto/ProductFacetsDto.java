@@ -0,0 +1,25 @@
+package com.shopping.electronic.store.dto;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Number of products matching the current filter, and per facet value the number selecting it would give
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFacetsDto {
+    private int count;
+    // categoryId -> count
+    private Map<String, Integer> categories;
+    // price bucket of discounted price, e.g. 1000-4999 -> count
+    private Map<String, Integer> priceBuckets;
+    private Map<String, Integer> live;
+    private Map<String, Integer> stock;
+}
@@ -0,0 +1,31 @@
+package com.shopping.electronic.store.dto;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+// Filters of the product query, every given filter has to match, absent ones match anything
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductQuery {
+    private String categoryId;
+    private Integer minPrice;
+    private Integer maxPrice;
+    private Integer minDiscountedPrice;
+    private Integer maxDiscountedPrice;
+    private Boolean live;
+    private Boolean stock;
+    // added date window, from inclusive and to exclusive
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Date addedFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Date addedTo;
+}
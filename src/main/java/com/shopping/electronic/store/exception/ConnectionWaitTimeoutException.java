@@ -0,0 +1,11 @@
+package com.shopping.electronic.store.exception;
+
+import java.sql.SQLTransientConnectionException;
+
+// Too many requests waiting for a database connection, thrown by BoundedWaitDataSource, client may retry
+public class ConnectionWaitTimeoutException extends SQLTransientConnectionException {
+
+    public ConnectionWaitTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -6,8 +6,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -56,4 +60,32 @@ public class GlobalExceptionHandler {
                 .build();
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
+
+    // No database connection within the wait limit, e.g. too many virtual thread requests waiting, client may retry.
+    // The timeout arrives wrapped by the transaction manager or Hibernate, other failures to connect stay errors
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ApiResponse> handleDatabaseUnavailableException(NestedRuntimeException ex) {
+        if (!ex.contains(ConnectionWaitTimeoutException.class)) {
+            throw ex;
+        }
+
+        ApiResponse response = ApiResponse.builder()
+                .message("Service is busy, please retry")
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .success(false)
+                .build();
+        return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    // Still changed concurrently after all retries, e.g. the same cart from several instances at once
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+
+        ApiResponse response = ApiResponse.builder()
+                .message("Resource was changed concurrently, please retry")
+                .status(HttpStatus.CONFLICT)
+                .success(false)
+                .build();
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
 }
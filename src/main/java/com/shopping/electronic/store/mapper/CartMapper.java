@@ -0,0 +1,15 @@
+package com.shopping.electronic.store.mapper;
+
+import com.shopping.electronic.store.dto.CartDto;
+import com.shopping.electronic.store.dto.CartItemDto;
+import com.shopping.electronic.store.model.Cart;
+import com.shopping.electronic.store.model.CartItem;
+import org.mapstruct.Mapper;
+
+@Mapper(config = MapperConfiguration.class, uses = ProductMapper.class)
+public interface CartMapper {
+
+    CartDto toDto(Cart cart);
+
+    CartItemDto toDto(CartItem cartItem);
+}
@@ -0,0 +1,15 @@
+package com.shopping.electronic.store.mapper;
+
+import com.shopping.electronic.store.dto.CategoryDto;
+import com.shopping.electronic.store.model.Category;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = MapperConfiguration.class)
+public interface CategoryMapper {
+
+    CategoryDto toDto(Category category);
+
+    @Mapping(target = "productList", ignore = true)
+    Category toEntity(CategoryDto categoryDto);
+}
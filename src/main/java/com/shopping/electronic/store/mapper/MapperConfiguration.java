@@ -0,0 +1,15 @@
+package com.shopping.electronic.store.mapper;
+
+import org.mapstruct.Builder;
+import org.mapstruct.MapperConfig;
+import org.mapstruct.ReportingPolicy;
+
+// Shared settings of generated mappers: spring beans, plain setters instead of lombok builders
+// and compile error for any target property left unmapped
+@MapperConfig(
+        componentModel = "spring",
+        builder = @Builder(disableBuilder = true),
+        unmappedTargetPolicy = ReportingPolicy.ERROR
+)
+public interface MapperConfiguration {
+}
@@ -0,0 +1,26 @@
+package com.shopping.electronic.store.mapper;
+
+import com.shopping.electronic.store.dto.CreateOrderRequest;
+import com.shopping.electronic.store.dto.OrderDto;
+import com.shopping.electronic.store.dto.OrderItemDto;
+import com.shopping.electronic.store.model.Order;
+import com.shopping.electronic.store.model.OrderItem;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = MapperConfiguration.class, uses = ProductMapper.class)
+public interface OrderMapper {
+
+    OrderDto toDto(Order order);
+
+    OrderItemDto toDto(OrderItem orderItem);
+
+    // billing and status details only, the rest is filled while placing the order
+    @Mapping(target = "orderId", ignore = true)
+    @Mapping(target = "orderAmount", ignore = true)
+    @Mapping(target = "orderedDate", ignore = true)
+    @Mapping(target = "deliveredDate", ignore = true)
+    @Mapping(target = "user", ignore = true)
+    @Mapping(target = "orderItems", ignore = true)
+    Order toEntity(CreateOrderRequest createOrderRequest);
+}
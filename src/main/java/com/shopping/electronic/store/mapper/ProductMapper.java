@@ -0,0 +1,13 @@
+package com.shopping.electronic.store.mapper;
+
+import com.shopping.electronic.store.dto.ProductDto;
+import com.shopping.electronic.store.model.Product;
+import org.mapstruct.Mapper;
+
+@Mapper(config = MapperConfiguration.class, uses = CategoryMapper.class)
+public interface ProductMapper {
+
+    ProductDto toDto(Product product);
+
+    Product toEntity(ProductDto productDto);
+}
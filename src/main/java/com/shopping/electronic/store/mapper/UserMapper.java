@@ -0,0 +1,15 @@
+package com.shopping.electronic.store.mapper;
+
+import com.shopping.electronic.store.dto.UserDto;
+import com.shopping.electronic.store.model.User;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = MapperConfiguration.class)
+public interface UserMapper {
+
+    UserDto toDto(User user);
+
+    @Mapping(target = "orders", ignore = true)
+    User toEntity(UserDto userDto);
+}
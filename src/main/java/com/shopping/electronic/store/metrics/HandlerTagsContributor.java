@@ -0,0 +1,35 @@
+package com.shopping.electronic.store.metrics;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// Adds controller method (e.g. ProductController.getAllProduct) as "handler" tag of http.server.requests
+public class HandlerTagsContributor implements WebMvcTagsContributor {
+
+    static final String TAG = "handler";
+    private static final String NONE = "none";
+
+    @Override
+    public Iterable<Tag> getTags(final HttpServletRequest request, final HttpServletResponse response,
+                                 final Object handler, final Throwable exception) {
+        return Tags.of(TAG, handlerName(handler));
+    }
+
+    @Override
+    public Iterable<Tag> getLongRequestTags(final HttpServletRequest request, final Object handler) {
+        return Tags.of(TAG, handlerName(handler));
+    }
+
+    static String handlerName(final Object handler) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        }
+        return NONE;
+    }
+}
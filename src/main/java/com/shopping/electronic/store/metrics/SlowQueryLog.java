@@ -0,0 +1,75 @@
+package com.shopping.electronic.store.metrics;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * Captures statements slower than the threshold, a sample of them when sample rate is below 1.
+ * Request threads only enqueue, a single background thread writes the log. When the queue is full
+ * further captures are dropped and counted instead of slowing requests down.
+ */
+@Slf4j
+public class SlowQueryLog implements MeterBinder, DisposableBean {
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder captured = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public SlowQueryLog(final long thresholdMillis, final double sampleRate, final int queueCapacity) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.sampleRate = sampleRate;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-log");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> dropped.increment());
+    }
+
+    /**
+     * Method to capture statement if it was slow and is sampled
+     *
+     * @param sql
+     * @param elapsedNanos
+     * @param statistics   request the statement belongs to, may be null
+     */
+    public void record(final String sql, final long elapsedNanos, final SqlRequestStatistics statistics) {
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        captured.increment();
+        String handler = statistics == null ? "none" : statistics.getHandler();
+        executor.execute(() -> log.warn("Slow SQL took {} ms in {}: {}",
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), handler, sql));
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder("sql.slow.queries", captured, LongAdder::sum)
+                .description("Slow statements captured")
+                .register(registry);
+        FunctionCounter.builder("sql.slow.queries.dropped", dropped, LongAdder::sum)
+                .description("Slow statements not logged because the log queue was full")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
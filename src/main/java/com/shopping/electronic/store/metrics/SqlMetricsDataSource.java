@@ -0,0 +1,149 @@
+package com.shopping.electronic.store.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps pooled connections so every executed statement and every row read or written is counted
+ * for the current request, and statements slower than the threshold reach the slow query log.
+ */
+public class SqlMetricsDataSource extends DelegatingDataSource implements Closeable {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SqlMetricsDataSource(final DataSource targetDataSource, final SlowQueryLog slowQueryLog) {
+        super(targetDataSource);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    // pool is closed together with the application context, as it would be without this wrapper
+    @Override
+    public void close() throws IOException {
+        DataSource target = getTargetDataSource();
+        if (target instanceof Closeable) {
+            ((Closeable) target).close();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(final Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            Object result = invokeTarget(target, method, args);
+            if (result instanceof Statement) {
+                // prepareStatement and prepareCall carry sql as first argument, createStatement none
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return proxy(method.getReturnType(), new StatementHandler((Statement) result, sql));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String sql;
+
+        private StatementHandler(final Statement target, final String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute")) {
+                Object result = invokeTarget(target, method, args);
+                return "getResultSet".equals(method.getName()) && result != null
+                        ? proxy(ResultSet.class, new ResultSetHandler((ResultSet) result))
+                        : result;
+            }
+            long start = System.nanoTime();
+            Object result = invokeTarget(target, method, args);
+            long elapsed = System.nanoTime() - start;
+            SqlRequestStatistics statistics = SqlRequestStatistics.current();
+            if (statistics != null) {
+                statistics.statementExecuted(rowsWritten(result));
+            }
+            String executedSql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            slowQueryLog.record(executedSql == null ? "<batch>" : executedSql, elapsed, statistics);
+            return result instanceof ResultSet ? proxy(ResultSet.class, new ResultSetHandler((ResultSet) result)) : result;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+
+        private ResultSetHandler(final ResultSet target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            Object result = invokeTarget(target, method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                SqlRequestStatistics statistics = SqlRequestStatistics.current();
+                if (statistics != null) {
+                    statistics.rowRead();
+                }
+            }
+            return result;
+        }
+    }
+
+    // update counts of executeUpdate and executeBatch, queries write nothing
+    private static long rowsWritten(final Object result) {
+        if (result instanceof Number) {
+            return Math.max(0, ((Number) result).longValue());
+        }
+        long rows = 0;
+        if (result instanceof int[]) {
+            for (int count : (int[]) result) {
+                rows += Math.max(0, count);
+            }
+        } else if (result instanceof long[]) {
+            for (long count : (long[]) result) {
+                rows += Math.max(0, count);
+            }
+        }
+        return rows;
+    }
+
+    private static Object invokeTarget(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(final Class<T> type, final InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SqlMetricsDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -0,0 +1,50 @@
+package com.shopping.electronic.store.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Records number of statements, rows read and rows written per request, tagged with the controller method.
+ * Published as http.server.requests.sql.statements and http.server.requests.sql.rows under /actuator/metrics.
+ */
+@Component
+public class SqlMetricsInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response, final Object handler) {
+        SqlRequestStatistics.begin(HandlerTagsContributor.handlerName(handler));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(final HttpServletRequest request, final HttpServletResponse response,
+                                final Object handler, final Exception ex) {
+        SqlRequestStatistics statistics = SqlRequestStatistics.end();
+        if (statistics == null) {
+            return;
+        }
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("JDBC statements executed per request")
+                .tags(HandlerTagsContributor.TAG, statistics.getHandler())
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        rows("read", statistics.getHandler()).record(statistics.getRowsRead());
+        rows("written", statistics.getHandler()).record(statistics.getRowsWritten());
+    }
+
+    private DistributionSummary rows(final String operation, final String handler) {
+        return DistributionSummary.builder("http.server.requests.sql.rows")
+                .description("JDBC rows read or written per request")
+                .tags(HandlerTagsContributor.TAG, handler, "operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,68 @@
+package com.shopping.electronic.store.metrics;
+
+/**
+ * JDBC work done by the request bound to current thread.
+ * Statements executed outside of a request, e.g. at startup, are not counted.
+ */
+public final class SqlRequestStatistics {
+
+    private static final ThreadLocal<SqlRequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private final String handler;
+    private int statements;
+    private long rowsRead;
+    private long rowsWritten;
+
+    private SqlRequestStatistics(final String handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Method to start counting for the request handled by current thread
+     *
+     * @param handler
+     */
+    public static void begin(final String handler) {
+        CURRENT.set(new SqlRequestStatistics(handler));
+    }
+
+    /**
+     * Method to stop counting for current thread
+     *
+     * @return statistics of the finished request, null when none was started
+     */
+    public static SqlRequestStatistics end() {
+        SqlRequestStatistics statistics = CURRENT.get();
+        CURRENT.remove();
+        return statistics;
+    }
+
+    public static SqlRequestStatistics current() {
+        return CURRENT.get();
+    }
+
+    void statementExecuted(final long rows) {
+        statements++;
+        rowsWritten += rows;
+    }
+
+    void rowRead() {
+        rowsRead++;
+    }
+
+    public String getHandler() {
+        return handler;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+}
@@ -0,0 +1,117 @@
+package com.shopping.electronic.store.model;
+
+import java.nio.ByteBuffer;
+import java.sql.Types;
+import java.util.UUID;
+
+import org.hibernate.type.AbstractSingleColumnStandardBasicType;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.AbstractTypeDescriptor;
+import org.hibernate.type.descriptor.sql.BinaryTypeDescriptor;
+
+/**
+ * Maps UUID string ids to binary(16) columns, less than half the size of the text form in primary and foreign keys
+ * and in every secondary index. A string that is not a UUID cannot be stored, it is bound as null and matches no row.
+ * Byte order equals order of the lower case text form, so sorting and keyset cursors by id are unchanged.
+ */
+public class BinaryIdType extends AbstractSingleColumnStandardBasicType<String> {
+
+    // for @Type on id attributes
+    public static final String NAME = "com.shopping.electronic.store.model.BinaryIdType";
+    public static final int LENGTH = 16;
+
+    public BinaryIdType() {
+        super(FixedBinaryTypeDescriptor.INSTANCE, UuidStringTypeDescriptor.INSTANCE);
+    }
+
+    @Override
+    public String getName() {
+        return "binary-id";
+    }
+
+    /**
+     * Method to convert id for plain JDBC statements
+     *
+     * @param id
+     * @return 16 bytes, null when id is not a UUID
+     */
+    public static byte[] toBytes(final String id) {
+        UUID uuid;
+        try {
+            uuid = id == null || id.length() != 36 ? null : UUID.fromString(id);
+        } catch (IllegalArgumentException ex) {
+            uuid = null;
+        }
+        if (uuid == null) {
+            return null;
+        }
+        return ByteBuffer.allocate(LENGTH)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static String fromBytes(final byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+
+    // binary(16) in generated schema like in db/binary-ids-mysql.sql, the standard descriptor reports varbinary
+    private static final class FixedBinaryTypeDescriptor extends BinaryTypeDescriptor {
+
+        private static final FixedBinaryTypeDescriptor INSTANCE = new FixedBinaryTypeDescriptor();
+
+        @Override
+        public int getSqlType() {
+            return Types.BINARY;
+        }
+    }
+
+    private static final class UuidStringTypeDescriptor extends AbstractTypeDescriptor<String> {
+
+        private static final UuidStringTypeDescriptor INSTANCE = new UuidStringTypeDescriptor();
+
+        private UuidStringTypeDescriptor() {
+            super(String.class);
+        }
+
+        @Override
+        public String toString(final String value) {
+            return value;
+        }
+
+        @Override
+        public String fromString(final String string) {
+            return string;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <X> X unwrap(final String value, final Class<X> type, final WrapperOptions options) {
+            if (value == null) {
+                return null;
+            }
+            if (byte[].class.isAssignableFrom(type)) {
+                return (X) toBytes(value);
+            }
+            if (String.class.isAssignableFrom(type)) {
+                return (X) value;
+            }
+            throw unknownUnwrap(type);
+        }
+
+        @Override
+        public <X> String wrap(final X value, final WrapperOptions options) {
+            if (value == null) {
+                return null;
+            }
+            if (value instanceof byte[]) {
+                return fromBytes((byte[]) value);
+            }
+            if (value instanceof String) {
+                return (String) value;
+            }
+            throw unknownWrap(value.getClass());
+        }
+    }
+}
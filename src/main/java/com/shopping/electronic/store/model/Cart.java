@@ -9,13 +9,17 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Type;
 
 import javax.persistence.CascadeType;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.JoinColumn;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 @Entity
 @Table(name = "cart")
@@ -26,10 +30,17 @@ import javax.persistence.Table;
 @Builder
 public class Cart {
     @Id
+    @Type(type = BinaryIdType.NAME)
+    @Column(length = BinaryIdType.LENGTH)
     private String cartId;
     private Date createdDate;
+    // one cart per user, a cart created concurrently by another instance fails instead of becoming a second cart
     @OneToOne
+    @JoinColumn(unique = true)
     private User user;
+    // also incremented when items are added or removed
+    @Version
+    private Long version;
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CartItem> items = new ArrayList<>();
 }
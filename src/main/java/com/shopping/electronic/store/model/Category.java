@@ -8,7 +8,11 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Type;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -24,10 +28,13 @@ import javax.persistence.Table;
 @Builder
 @Entity
 @Table(name = "categories")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog-categories")
 public class Category {
 
     @Id
-    @Column(name = "category_id")
+    @Type(type = BinaryIdType.NAME)
+    @Column(name = "category_id", length = BinaryIdType.LENGTH)
     private String categoryId;
 
     @Column(name = "category_title", length = 60, nullable = false)
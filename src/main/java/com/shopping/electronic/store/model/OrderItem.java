@@ -7,12 +7,14 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
 @Entity
@@ -23,15 +25,18 @@ import javax.persistence.Table;
 @AllArgsConstructor
 @Builder
 public class OrderItem {
+    // ids are reserved 50 at a time so items of an order are inserted in one jdbc batch,
+    // identity columns would need a round trip per row (a table emulates the sequence on MySQL)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_ids")
+    @SequenceGenerator(name = "order_item_ids", sequenceName = "order_item_ids", allocationSize = 50)
     private int orderItemId;
 
     private int quantity;
 
     private int totalPrice;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     private Product product;
 
@@ -7,10 +7,13 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Type;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
@@ -21,10 +24,21 @@ import javax.persistence.Table;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "products")
+// composite indexes of the product query, see ProductQueryPlanner and db/product-query-indexes-mysql.sql,
+// column lists name properties (logical names), the naming strategy turns discountedPrice into discounted_price
+@Table(name = "products", indexes = {
+        @Index(name = "ix_products_category_live_stock_discounted", columnList = "category_id, live, stock, discountedPrice"),
+        @Index(name = "ix_products_live_stock_discounted", columnList = "live, stock, discountedPrice"),
+        @Index(name = "ix_products_live_stock_price", columnList = "live, stock, price"),
+        @Index(name = "ix_products_live_stock_added", columnList = "live, stock, addedDate")
+})
+// not in second level cache, every stock update is a bulk statement that would evict the whole region and the
+// query results of products. Reads are served by the products cache of ProductServiceImp and the in-memory listings
 public class Product {
 
     @Id
+    @Type(type = BinaryIdType.NAME)
+    @Column(length = BinaryIdType.LENGTH)
     private String productId;
 
     private String title;
@@ -8,6 +8,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Type;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
@@ -26,7 +27,8 @@ import javax.persistence.Table;
 @Table(name = "user_table")
 public class User {
     @Id
-    @Column(name = "user_id")
+    @Type(type = BinaryIdType.NAME)
+    @Column(name = "user_id", length = BinaryIdType.LENGTH)
     private String userId;
     @Column(name = "user_name")
     private String name;
@@ -2,10 +2,19 @@ package com.shopping.electronic.store.repository;
 
 import com.shopping.electronic.store.model.Cart;
 import com.shopping.electronic.store.model.User;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, String> {
+    // cart, its items and their products in a single statement
+    @EntityGraph(attributePaths = {"items", "items.product", "items.product.category"})
     Cart findByUser(User user);
+
+    @EntityGraph(attributePaths = {"items", "items.product", "items.product.category"})
+    Optional<Cart> findById(String cartId);
 }
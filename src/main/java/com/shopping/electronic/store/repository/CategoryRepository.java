@@ -4,10 +4,23 @@ import com.shopping.electronic.store.model.Category;
 
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, String> {
-    List<Category> findByTitleContaining(String keyword);
+    // page of ids and count come from query cache, categories themselves from second level cache
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    Page<Category> findAll(Pageable pageable);
+
+    @Query("select c.categoryId as id, c.title as keyword from Category c")
+    List<KeywordView> findAllKeywords();
 }
@@ -0,0 +1,165 @@
+package com.shopping.electronic.store.repository;
+
+import com.shopping.electronic.store.exception.BadApiRequestException;
+import com.shopping.electronic.store.util.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+
+/**
+ * Keyset (seek) pagination over any entity.
+ * Rows are ordered by (sortBy, id) and each slice continues strictly after the last row of the previous one,
+ * so deep slices cost the same as the first one and no count query is issued.
+ * Null sort values are ordered first when ascending and last when descending, as MySQL does.
+ */
+@Repository
+public class KeysetQueryRepository {
+
+    private static final String SEPARATOR = "|";
+    private static final String NULL_VALUE = "N";
+    private static final String PRESENT_VALUE = "V";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Method to fetch slice of entities following the given cursor
+     *
+     * @param type       entity class
+     * @param filter     optional restriction, may be null
+     * @param sortBy     entity property to sort on
+     * @param sortDir    ASC or DESC
+     * @param cursor     cursor returned with previous slice, null for first slice
+     * @param pageSize
+     * @return
+     */
+    public <T> CursorPage<T> findSlice(final Class<T> type, final Specification<T> filter, final String sortBy,
+                                       final String sortDir, final String cursor, final int pageSize) {
+        if (pageSize <= 0) {
+            throw new BadApiRequestException("Page size must be greater than zero !!");
+        }
+        EntityType<T> entityType = entityManager.getMetamodel().entity(type);
+        String idName = entityType.getId(entityType.getIdType().getJavaType()).getName();
+        SingularAttribute<? super T, ?> sortAttribute = sortAttribute(entityType, sortBy);
+        boolean ascending = !"DESC".equals(sortDir);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<T> root = query.from(type);
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter != null) {
+            Predicate predicate = filter.toPredicate(root, query, cb);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        Path<Comparable<Object>> sortKey = root.get(sortBy);
+        Path<Comparable<Object>> id = root.get(idName);
+        if (cursor != null && !cursor.isEmpty()) {
+            Object[] last = decode(cursor, sortBy, ascending, entityType.getIdType().getJavaType(), sortAttribute.getJavaType());
+            predicates.add(seekPredicate(cb, sortKey, id, last, ascending));
+        }
+        query.select(root)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(ascending ? cb.asc(sortKey) : cb.desc(sortKey), ascending ? cb.asc(id) : cb.desc(id));
+
+        List<T> rows = entityManager.createQuery(query).setMaxResults(pageSize + 1).getResultList();
+        boolean hasNext = rows.size() > pageSize;
+        List<T> content = hasNext ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            DirectFieldAccessor last = new DirectFieldAccessor(content.get(content.size() - 1));
+            nextCursor = encode(sortBy, ascending, last.getPropertyValue(idName), last.getPropertyValue(sortBy));
+        }
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+
+    private static <T> SingularAttribute<? super T, ?> sortAttribute(final EntityType<T> entityType, final String sortBy) {
+        Attribute<? super T, ?> attribute;
+        try {
+            attribute = entityType.getAttribute(sortBy);
+        } catch (IllegalArgumentException ex) {
+            throw new BadApiRequestException("Invalid sort property: " + sortBy);
+        }
+        if (attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC) {
+            throw new BadApiRequestException("Invalid sort property: " + sortBy);
+        }
+        return (SingularAttribute<? super T, ?>) attribute;
+    }
+
+    private static Predicate seekPredicate(final CriteriaBuilder cb, final Path<Comparable<Object>> sortKey,
+                                           final Path<Comparable<Object>> id, final Object[] last, final boolean ascending) {
+        Comparable<Object> lastId = (Comparable<Object>) last[0];
+        Comparable<Object> lastValue = (Comparable<Object>) last[1];
+        Predicate afterId = ascending ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+        if (lastValue == null) {
+            Predicate sameKey = cb.and(cb.isNull(sortKey), afterId);
+            // nulls come first when ascending, so every non null key follows
+            return ascending ? cb.or(cb.isNotNull(sortKey), sameKey) : sameKey;
+        }
+        Predicate afterKey = ascending ? cb.greaterThan(sortKey, lastValue) : cb.lessThan(sortKey, lastValue);
+        Predicate sameKey = cb.and(cb.equal(sortKey, lastValue), afterId);
+        // nulls come last when descending
+        return ascending ? cb.or(afterKey, sameKey) : cb.or(afterKey, sameKey, cb.isNull(sortKey));
+    }
+
+    private static String encode(final String sortBy, final boolean ascending, final Object id, final Object value) {
+        String encodedValue = value == null ? NULL_VALUE : PRESENT_VALUE + (value instanceof Date ? ((Date) value).toInstant() : value);
+        String raw = String.join(SEPARATOR, sortBy, ascending ? "ASC" : "DESC", String.valueOf(id), encodedValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object[] decode(final String cursor, final String sortBy, final boolean ascending,
+                                   final Class<?> idType, final Class<?> sortType) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\" + SEPARATOR, 4);
+        } catch (IllegalArgumentException ex) {
+            throw new BadApiRequestException("Invalid cursor !!");
+        }
+        if (parts.length != 4 || !parts[0].equals(sortBy) || !parts[1].equals(ascending ? "ASC" : "DESC")) {
+            throw new BadApiRequestException("Cursor does not match requested sorting !!");
+        }
+        Object value = parts[3].startsWith(PRESENT_VALUE) ? parseValue(parts[3].substring(1), sortType) : null;
+        return new Object[]{parseValue(parts[2], idType), value};
+    }
+
+    private static Object parseValue(final String value, final Class<?> javaType) {
+        try {
+            if (javaType == String.class) {
+                return value;
+            } else if (javaType == int.class || javaType == Integer.class) {
+                return Integer.valueOf(value);
+            } else if (javaType == long.class || javaType == Long.class) {
+                return Long.valueOf(value);
+            } else if (javaType == boolean.class || javaType == Boolean.class) {
+                return Boolean.valueOf(value);
+            } else if (Date.class.isAssignableFrom(javaType)) {
+                return Timestamp.from(Instant.parse(value));
+            }
+        } catch (RuntimeException ex) {
+            throw new BadApiRequestException("Invalid cursor !!");
+        }
+        throw new BadApiRequestException("Unsupported sort property type: " + javaType.getSimpleName());
+    }
+}
@@ -0,0 +1,8 @@
+package com.shopping.electronic.store.repository;
+
+// id and searchable text of an entity, used to build in-memory keyword index
+public interface KeywordView {
+    String getId();
+
+    String getKeyword();
+}
@@ -3,12 +3,37 @@ package com.shopping.electronic.store.repository;
 import com.shopping.electronic.store.model.Order;
 import com.shopping.electronic.store.model.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, String> {
-    List<Order> findByUser(User user);
+    // orders, their items and ordered products in a single statement
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product", "orderItems.product.category"})
+    List<Order> findDistinctByUser(User user);
+
+    // page of ids first, fetching items together with a page limit would paginate in memory
+    @Query(value = "select o.orderId from Order o", countQuery = "select count(o) from Order o")
+    Page<String> findAllOrderIds(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product", "orderItems.product.category"})
+    List<Order> findByOrderIdIn(Collection<String> orderIds);
+
+    // ids of all orders for exports, streamed as ProductRepository.streamAllProductIds
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select o.orderId from Order o order by o.orderId")
+    Stream<String> streamAllOrderIds();
 }
@@ -0,0 +1,59 @@
+package com.shopping.electronic.store.repository;
+
+import com.shopping.electronic.store.model.BinaryIdType;
+import com.shopping.electronic.store.model.Product;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Plain JDBC batch inserts of products for bulk loads, bypassing the persistence context.
+ * With rewriteBatchedStatements on the MySQL url a batch is sent as a few multi row inserts.
+ * Second level and query caches are not aware of these rows, callers evict query regions afterwards.
+ */
+@Repository
+public class ProductBatchRepository {
+
+    private static final String INSERT_PRODUCT = "insert into products (product_id, title, description, price, "
+            + "discounted_price, quantity, added_date, live, stock, product_image, category_id) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Method to insert all products in one transaction, either all rows are inserted or none
+     *
+     * @param products
+     */
+    @Transactional
+    public void insertAll(final List<Product> products) {
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT, products, products.size(), ProductBatchRepository::setValues);
+    }
+
+    private static void setValues(final PreparedStatement statement, final Product product) throws SQLException {
+        statement.setBytes(1, BinaryIdType.toBytes(product.getProductId()));
+        statement.setString(2, product.getTitle());
+        statement.setString(3, product.getDescription());
+        statement.setInt(4, product.getPrice());
+        statement.setInt(5, product.getDiscountedPrice());
+        statement.setInt(6, product.getQuantity());
+        statement.setTimestamp(7, new Timestamp(product.getAddedDate().getTime()));
+        statement.setBoolean(8, product.isLive());
+        statement.setBoolean(9, product.isStock());
+        statement.setString(10, product.getProductImage());
+        if (product.getCategory() == null) {
+            statement.setNull(11, Types.BINARY);
+        } else {
+            statement.setBytes(11, BinaryIdType.toBytes(product.getCategory().getCategoryId()));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.shopping.electronic.store.repository;
+
+// faceted attributes of a product, used to build in-memory facet index
+public interface ProductFacetView {
+    String getId();
+
+    String getCategoryId();
+
+    boolean isLive();
+
+    boolean isStock();
+
+    int getDiscountedPrice();
+
+    int getQuantity();
+}
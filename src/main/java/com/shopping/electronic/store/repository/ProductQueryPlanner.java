@@ -0,0 +1,97 @@
+package com.shopping.electronic.store.repository;
+
+import com.shopping.electronic.store.dto.ProductQuery;
+import com.shopping.electronic.store.exception.BadApiRequestException;
+import com.shopping.electronic.store.model.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+/**
+ * Turns product query filters into a restriction the composite indexes of the products table can serve.
+ * Every filter compares a plain column with a bound value, no function is applied to a column, and the category
+ * is compared by its foreign key without joining categories.
+ * Range filters can only use an index after equality on all of its leading columns, live and stock lead the indexes
+ * (after the category in the category one), so when a range is filtered these two are restricted to (false, true)
+ * if the client left them open.
+ * MySQL then reads one index range per combination instead of scanning the table.
+ */
+public final class ProductQueryPlanner {
+
+    private ProductQueryPlanner() {
+    }
+
+    /**
+     * Method to build restriction matching all given filters
+     *
+     * @param productQuery
+     * @return
+     */
+    public static Specification<Product> toSpecification(final ProductQuery productQuery) {
+        checkRange(productQuery.getMinPrice(), productQuery.getMaxPrice(), "price");
+        checkRange(productQuery.getMinDiscountedPrice(), productQuery.getMaxDiscountedPrice(), "discounted price");
+        if (productQuery.getAddedFrom() != null && productQuery.getAddedTo() != null
+                && !productQuery.getAddedFrom().before(productQuery.getAddedTo())) {
+            throw new BadApiRequestException("Added date window must end after it starts !!");
+        }
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            boolean ranged = hasRange(productQuery);
+            predicates.add(flag(root, cb, "live", productQuery.getLive(), ranged));
+            predicates.add(flag(root, cb, "stock", productQuery.getStock(), ranged));
+            if (productQuery.getCategoryId() != null) {
+                predicates.add(cb.equal(root.get("category").get("categoryId"), productQuery.getCategoryId()));
+            }
+            addRange(predicates, cb, root.get("price"), productQuery.getMinPrice(), productQuery.getMaxPrice());
+            addRange(predicates, cb, root.get("discountedPrice"),
+                    productQuery.getMinDiscountedPrice(), productQuery.getMaxDiscountedPrice());
+            if (productQuery.getAddedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("addedDate"), productQuery.getAddedFrom()));
+            }
+            if (productQuery.getAddedTo() != null) {
+                predicates.add(cb.lessThan(root.get("addedDate"), productQuery.getAddedTo()));
+            }
+            predicates.removeIf(predicate -> predicate == null);
+            return predicates.isEmpty() ? null : cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static boolean hasRange(final ProductQuery productQuery) {
+        return productQuery.getMinPrice() != null || productQuery.getMaxPrice() != null
+                || productQuery.getMinDiscountedPrice() != null || productQuery.getMaxDiscountedPrice() != null
+                || productQuery.getAddedFrom() != null || productQuery.getAddedTo() != null;
+    }
+
+    private static Predicate flag(final Root<Product> root, final CriteriaBuilder cb, final String name,
+                                  final Boolean value, final boolean ranged) {
+        Path<Boolean> path = root.get(name);
+        if (value != null) {
+            return cb.equal(path, value);
+        }
+        // matches every row, only there to keep the index prefix usable for the range
+        return ranged ? path.in(false, true) : null;
+    }
+
+    private static void addRange(final List<Predicate> predicates, final CriteriaBuilder cb, final Path<Integer> path,
+                                 final Integer min, final Integer max) {
+        if (min != null) {
+            predicates.add(cb.greaterThanOrEqualTo(path, min));
+        }
+        if (max != null) {
+            predicates.add(cb.lessThanOrEqualTo(path, max));
+        }
+    }
+
+    private static void checkRange(final Integer min, final Integer max, final String name) {
+        if (min != null && max != null && min > max) {
+            throw new BadApiRequestException("Minimum " + name + " must not exceed maximum !!");
+        }
+    }
+}
@@ -4,19 +4,71 @@ import com.shopping.electronic.store.model.Category;
 import com.shopping.electronic.store.model.Product;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, String> {
+    // category is joined into listing queries instead of one select per category
+    @EntityGraph(attributePaths = "category")
+    Page<Product> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAllById(Iterable<String> productIds);
+
+    @EntityGraph(attributePaths = "category")
     Page<Product> findByLiveTrue(Pageable pageable);
 
+    @EntityGraph(attributePaths = "category")
     Page<Product> findByStockTrue(Pageable pageable);
 
-    List<Product> findByTitleContaining(String keyword);
+    @Query("select p.productId as id, p.title as keyword from Product p")
+    List<KeywordView> findAllKeywords();
+
+    // products of the in-memory live and in stock listings, read when the listings are built
+    @EntityGraph(attributePaths = "category")
+    @Query("select p from Product p where p.live = true or p.stock = true")
+    List<Product> findAllListed();
 
+    // ids of the products of a category, e.g. to drop them from in-memory indexes when the category is deleted
+    @Query("select p.productId from Product p where p.category.categoryId = :categoryId")
+    List<String> findIdsByCategory(@Param("categoryId") String categoryId);
+
+    // faceted attributes of all products, read when the facet index is built
+    @Query("select p.productId as id, c.categoryId as categoryId, p.live as live, p.stock as stock, "
+            + "p.discountedPrice as discountedPrice, p.quantity as quantity from Product p left join p.category c")
+    List<ProductFacetView> findAllFacets();
+
+    // forward only cursor for exports, rows are fetched from the server in batches of the fetch size
+    // (MySQL needs useCursorFetch on the url, otherwise the whole result is read into memory)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select p.productId from Product p order by p.productId")
+    Stream<String> streamAllProductIds();
+
+    @EntityGraph(attributePaths = "category")
     Page<Product> findByCategory(Category category, Pageable pageable);
+
+    // conditional decrement, returns 0 when product is missing or has not enough quantity left.
+    // Pending writes are flushed first so they are not written while the product row is locked
+    @Modifying(flushAutomatically = true)
+    @Query("update Product p set p.stock = case when p.quantity > :quantity then true else false end, "
+            + "p.quantity = p.quantity - :quantity where p.productId = :productId and p.quantity >= :quantity")
+    int reserveStock(@Param("productId") String productId, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("update Product p set p.quantity = p.quantity + :quantity, p.stock = true where p.productId = :productId")
+    int releaseStock(@Param("productId") String productId, @Param("quantity") int quantity);
 }
@@ -0,0 +1,98 @@
+package com.shopping.electronic.store.repository;
+
+import com.shopping.electronic.store.exception.BadApiRequestException;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+
+/**
+ * Sparse fieldsets over any entity: only the requested columns are selected, as a tuple per row, so wide columns
+ * and associations nobody asked for are neither read from the database nor serialized.
+ * Fields are basic properties of the entity, the id is always selected first.
+ */
+@Repository
+public class ProjectionQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Method to check requested fields
+     *
+     * @param type   entity class
+     * @param fields basic properties, repeated ones are selected once
+     * @return id followed by requested fields in request order
+     */
+    public <T> List<String> fields(final Class<T> type, final List<String> fields) {
+        EntityType<T> entityType = entityManager.getMetamodel().entity(type);
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add(entityType.getId(entityType.getIdType().getJavaType()).getName());
+        for (String field : fields) {
+            Attribute<? super T, ?> attribute;
+            try {
+                attribute = entityType.getAttribute(field);
+            } catch (IllegalArgumentException ex) {
+                throw new BadApiRequestException("Invalid field: " + field);
+            }
+            if (attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC) {
+                throw new BadApiRequestException("Invalid field: " + field);
+            }
+            selected.add(field);
+        }
+        return List.copyOf(selected);
+    }
+
+    /**
+     * Method to fetch page of entities with requested fields only
+     *
+     * @param type     entity class
+     * @param filter   optional restriction, may be null
+     * @param fields
+     * @param pageable
+     * @return field -> value per row, fields in order of {@link #fields}
+     */
+    public <T> List<Map<String, Object>> findPage(final Class<T> type, final Specification<T> filter,
+                                                  final List<String> fields, final Pageable pageable) {
+        List<String> selected = fields(type, fields);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(type);
+        query.multiselect(selected.stream().map(field -> root.get(field).alias(field)).collect(Collectors.toList()));
+        if (filter != null) {
+            Predicate predicate = filter.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        List<Tuple> rows = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return rows.stream().map(row -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            selected.forEach(field -> values.put(field, row.get(field)));
+            return values;
+        }).collect(Collectors.toList());
+    }
+}
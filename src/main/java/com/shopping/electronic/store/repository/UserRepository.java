@@ -3,13 +3,26 @@ package com.shopping.electronic.store.repository;
 import com.shopping.electronic.store.model.User;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
     User findByEmail(String email);
 
-    List<User> findByNameContaining(String keyword);
+    @Query("select u.userId as id, u.name as keyword from User u")
+    List<KeywordView> findAllKeywords();
+
+    // ids of all users for exports, streamed as ProductRepository.streamAllProductIds
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.userId from User u order by u.userId")
+    Stream<String> streamAllUserIds();
 }
@@ -17,4 +17,7 @@ public interface CartService {
     void clearCart(String userId);
 
     CartDto getCartByUser(String userId);
+
+    // Write pending changes of user's cart within current transaction, called before the cart is ordered
+    void flushCart(String userId);
 }
@@ -3,6 +3,7 @@ package com.shopping.electronic.store.service;
 import com.shopping.electronic.store.dto.AddItemToCartRequest;
 import com.shopping.electronic.store.dto.CartDto;
 import com.shopping.electronic.store.exception.ResourceNotFoundException;
+import com.shopping.electronic.store.mapper.CartMapper;
 import com.shopping.electronic.store.model.Cart;
 import com.shopping.electronic.store.model.CartItem;
 import com.shopping.electronic.store.model.Product;
@@ -11,18 +12,34 @@ import com.shopping.electronic.store.repository.CartItemRepository;
 import com.shopping.electronic.store.repository.CartRepository;
 import com.shopping.electronic.store.repository.ProductRepository;
 import com.shopping.electronic.store.repository.UserRepository;
+import com.shopping.electronic.store.util.IdGenerator;
+import com.shopping.electronic.store.util.KeyedLocks;
 
 import java.util.Date;
 import java.util.List;
-import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
+
+/**
+ * Changes of one user's cart are serialized by a lock per user in this instance, each change runs in its own
+ * transaction committed before the lock is released. Cart and items are versioned and a user has at most one cart,
+ * changes made concurrently by another instance fail the version check or unique constraint and are retried.
+ */
 @Service
+@ConditionalOnProperty(name = "cart.store", havingValue = "database", matchIfMissing = true)
 public class CartServiceImp implements CartService {
 
     @Autowired
@@ -34,10 +51,79 @@ public class CartServiceImp implements CartService {
     @Autowired
     private CartItemRepository cartItemRepository;
     @Autowired
-    private ModelMapper modelMapper;
+    private CartMapper cartMapper;
+    @Autowired
+    private IdGenerator idGenerator;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Value("${cart.max-attempts}")
+    private int maxAttempts;
+    private final KeyedLocks userLocks = new KeyedLocks();
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void createTransactionTemplate() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // a change is committed while its lock is held, also when called within another transaction
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
     @Override
     public CartDto addItemToCart(String userId, AddItemToCartRequest request) {
+        return changeCart(userId, () -> addItem(userId, request));
+    }
+
+    @Override
+    public void removeItemFromCart(String userId, int cartItem) {
+        changeCart(userId, () -> {
+            CartItem cartItem1 = cartItemRepository.findById(cartItem)
+                    .orElseThrow(() -> new ResourceNotFoundException("Cart Item not found"));
+            cartItemRepository.delete(cartItem1);
+            return null;
+        });
+    }
+
+    @Override
+    public void clearCart(String userId) {
+        changeCart(userId, () -> {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+            Cart cart = cartRepository.findByUser(user);
+            cart.getItems().clear();
+            cartRepository.save(cart);
+            return null;
+        });
+    }
+
+    @Override
+    public CartDto getCartByUser(String userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Cart cart = cartRepository.findByUser(user);
+        return cartMapper.toDto(cart);
+    }
+
+    // every change is already written
+    @Override
+    public void flushCart(String userId) {
+    }
+
+    // every attempt reads the cart again in a new transaction
+    private <T> T changeCart(final String userId, final Supplier<T> change) {
+        return userLocks.withLock(userId, () -> {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return transactionTemplate.execute(status -> change.get());
+                } catch (OptimisticLockingFailureException | DataIntegrityViolationException ex) {
+                    if (attempt >= maxAttempts) {
+                        throw ex;
+                    }
+                }
+            }
+        });
+    }
+
+    private CartDto addItem(final String userId, final AddItemToCartRequest request) {
 
         Product product = productRepository.findById(request.getProductId())
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
@@ -47,7 +133,7 @@ public class CartServiceImp implements CartService {
         Cart cart = cartRepository.findByUser(user);
         if (cart == null) {
             cart = new Cart();
-            cart.setCartId(UUID.randomUUID().toString());
+            cart.setCartId(idGenerator.nextId());
             cart.setCreatedDate(new Date());
         }
 
@@ -74,30 +160,6 @@ public class CartServiceImp implements CartService {
 
         cart.setUser(user);
         Cart updatedCart = cartRepository.save(cart);
-        return modelMapper.map(updatedCart, CartDto.class);
-    }
-
-    @Override
-    public void removeItemFromCart(String userId, int cartItem) {
-        CartItem cartItem1 = cartItemRepository.findById(cartItem)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart Item not found"));
-        cartItemRepository.delete(cartItem1);
-    }
-
-    @Override
-    public void clearCart(String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        Cart cart = cartRepository.findByUser(user);
-        cart.getItems().clear();
-        cartRepository.save(cart);
-    }
-
-    @Override
-    public CartDto getCartByUser(String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        Cart cart = cartRepository.findByUser(user);
-        return modelMapper.map(cart, CartDto.class);
+        return cartMapper.toDto(updatedCart);
     }
 }
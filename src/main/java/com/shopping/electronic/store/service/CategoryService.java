@@ -1,6 +1,8 @@
 package com.shopping.electronic.store.service;
 
 import com.shopping.electronic.store.dto.CategoryDto;
+import com.shopping.electronic.store.util.BatchResult;
+import com.shopping.electronic.store.util.CursorPage;
 
 import java.util.List;
 
@@ -14,8 +16,13 @@ public interface CategoryService {
 
     List<CategoryDto> getAllCategory(int pageNumber, int pageSize, String sortBy, String sortDir);
 
+    CursorPage<CategoryDto> getAllCategory(String cursor, int pageSize, String sortBy, String sortDir);
+
     CategoryDto getCategory(String categoryId);
 
-    List<CategoryDto> searchCategory(String keyword);
+    // categories of given ids in request order, unknown ids are reported as missing
+    BatchResult<CategoryDto> getCategories(List<String> categoryIds);
+
+    List<CategoryDto> searchCategory(String keyword, int pageNumber, int pageSize);
 
 }
@@ -2,27 +2,42 @@ package com.shopping.electronic.store.service;
 
 import com.shopping.electronic.store.dto.CategoryDto;
 import com.shopping.electronic.store.exception.ResourceNotFoundException;
+import com.shopping.electronic.store.mapper.CategoryMapper;
 import com.shopping.electronic.store.model.Category;
 import com.shopping.electronic.store.repository.CategoryRepository;
+import com.shopping.electronic.store.repository.KeysetQueryRepository;
+import com.shopping.electronic.store.repository.ProductRepository;
+import com.shopping.electronic.store.util.BatchResult;
+import com.shopping.electronic.store.util.CursorPage;
+import com.shopping.electronic.store.util.IdGenerator;
+import com.shopping.electronic.store.util.KeywordIndex;
+import com.shopping.electronic.store.util.SingleFlight;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import javax.persistence.EntityManagerFactory;
+
 @Service
 @Slf4j
 public class CategoryServiceImp implements CategoryService {
@@ -30,19 +45,53 @@ public class CategoryServiceImp implements CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
     @Autowired
-    private ModelMapper modelMapper;
+    private KeysetQueryRepository keysetQueryRepository;
+    @Autowired
+    private CategoryMapper categoryMapper;
+    @Autowired
+    private ImageVariantService imageVariantService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private IdGenerator idGenerator;
+    @Autowired
+    private SingleFlight<CategoryDto> categoryLoads;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductListingService productListingService;
+    @Autowired
+    private ProductFacetService productFacetService;
+    @Value("${batch.max-ids}")
+    private int maxBatchIds;
     @Value("${category.image.path}")
     private String imageUploadPath;
+    private final KeywordIndex searchIndex = new KeywordIndex();
+
+    /**
+     * Method to load category titles into search index once application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildSearchIndex() {
+        searchIndex.clear();
+        categoryRepository.findAllKeywords().forEach(entry -> searchIndex.put(entry.getId(), entry.getKeyword()));
+        log.info("Category search index built with {} categories.", searchIndex.size());
+    }
 
     @Override
     public CategoryDto createCategory(CategoryDto categoryDto) {
-        String categoryId = UUID.randomUUID().toString();
+        String categoryId = idGenerator.nextId();
         categoryDto.setCategoryId(categoryId);
-        Category category = categoryRepository.save(modelMapper.map(categoryDto, Category.class));
-        return modelMapper.map(category, CategoryDto.class);
+        Category category = categoryRepository.save(categoryMapper.toEntity(categoryDto));
+        searchIndex.put(category.getCategoryId(), category.getTitle());
+        return categoryMapper.toDto(category);
     }
 
+    // cached products embed their category details
     @Override
+    @CacheEvict(cacheNames = "products", allEntries = true)
     public CategoryDto updateCategory(String categoryId, CategoryDto categoryDto) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category Not Found !!!"));
@@ -50,10 +99,15 @@ public class CategoryServiceImp implements CategoryService {
         category.setTitle(categoryDto.getTitle());
         category.setCoverImage(categoryDto.getCoverImage());
         Category updatedCategory = categoryRepository.save(category);
-        return modelMapper.map(updatedCategory, CategoryDto.class);
+        evictCategory(categoryId);
+        searchIndex.put(updatedCategory.getCategoryId(), updatedCategory.getTitle());
+        // listed products embed their category
+        productListingService.categoryChanged(categoryMapper.toDto(updatedCategory));
+        return categoryMapper.toDto(updatedCategory);
     }
 
     @Override
+    @CacheEvict(cacheNames = "products", allEntries = true)
     public void deleteCategory(String categoryId) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category Not Found !!!"));
@@ -65,7 +119,15 @@ public class CategoryServiceImp implements CategoryService {
             log.info("Product image not found in folder.");
             ex.printStackTrace();
         }
+        imageVariantService.deleteVariants(imageUploadPath, category.getCoverImage());
+        // products of the category are deleted with it
+        List<String> productIds = productRepository.findIdsByCategory(categoryId);
         categoryRepository.delete(category);
+        evictCategory(categoryId);
+        searchIndex.remove(categoryId);
+        productIds.forEach(productListingService::productDeleted);
+        productIds.forEach(productFacetService::productDeleted);
+        productService.productsDeleted(productIds);
     }
 
     @Override
@@ -78,29 +140,56 @@ public class CategoryServiceImp implements CategoryService {
                 categoryList
                         .stream()
                         .map(
-                                category -> modelMapper.map(category, CategoryDto.class)
+                                category -> categoryMapper.toDto(category)
                         )
                         .collect(Collectors.toList());
         return categoryDtoList;
     }
 
+    @Override
+    public CursorPage<CategoryDto> getAllCategory(String cursor, int pageSize, String sortBy, String sortDir) {
+        return keysetQueryRepository.findSlice(Category.class, null, sortBy, sortDir, cursor, pageSize)
+                .map(category -> categoryMapper.toDto(category));
+    }
+
     @Override
     public CategoryDto getCategory(String categoryId) {
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category Not Found !!!"));
-        return modelMapper.map(category, CategoryDto.class);
+        // concurrent reads of a hot category share one load
+        return categoryLoads.load(categoryId, () -> {
+            Category category = categoryRepository.findById(categoryId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Category Not Found !!!"));
+            return categoryMapper.toDto(category);
+        });
     }
 
     @Override
-    public List<CategoryDto> searchCategory(String keyword) {
-        List<Category> categoryList = categoryRepository.findByTitleContaining(keyword);
+    public BatchResult<CategoryDto> getCategories(List<String> categoryIds) {
+        return BatchResult.lookup(categoryIds, maxBatchIds, categoryRepository::findAllById, Category::getCategoryId)
+                .map(category -> categoryMapper.toDto(category));
+    }
+
+    @Override
+    public List<CategoryDto> searchCategory(String keyword, int pageNumber, int pageSize) {
+        List<String> categoryIds = searchIndex.search(keyword, pageNumber, pageSize);
+        Map<String, Category> categoryMap = categoryRepository.findAllById(categoryIds)
+                .stream()
+                .collect(Collectors.toMap(Category::getCategoryId, Function.identity()));
         List<CategoryDto> categoryDtoList =
-                categoryList
+                categoryIds
                         .stream()
+                        .map(categoryMap::get)
+                        .filter(Objects::nonNull)
                         .map(
-                                category -> modelMapper.map(category, CategoryDto.class)
+                                category -> categoryMapper.toDto(category)
                         )
                         .collect(Collectors.toList());
         return categoryDtoList;
     }
+
+    // Hibernate keeps second level cache current for writes made through it, this also drops whatever
+    // was cached from rows changed around it, e.g. by bulk statements
+    private void evictCategory(final String categoryId) {
+        entityManagerFactory.getCache().evict(Category.class, categoryId);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
 }
@@ -0,0 +1,15 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.util.DataFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportService {
+
+    void exportProducts(DataFormat format, OutputStream output) throws IOException;
+
+    void exportOrders(DataFormat format, OutputStream output) throws IOException;
+
+    void exportUsers(DataFormat format, OutputStream output) throws IOException;
+}
@@ -0,0 +1,181 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.dto.UserDto;
+import com.shopping.electronic.store.mapper.OrderMapper;
+import com.shopping.electronic.store.mapper.ProductMapper;
+import com.shopping.electronic.store.mapper.UserMapper;
+import com.shopping.electronic.store.model.Order;
+import com.shopping.electronic.store.model.OrderItem;
+import com.shopping.electronic.store.model.Product;
+import com.shopping.electronic.store.model.User;
+import com.shopping.electronic.store.repository.OrderRepository;
+import com.shopping.electronic.store.repository.ProductRepository;
+import com.shopping.electronic.store.repository.UserRepository;
+import com.shopping.electronic.store.util.CsvWriter;
+import com.shopping.electronic.store.util.DataFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * Streams whole tables to a response with constant memory use.
+ * Ids are read through a forward only cursor and rows are loaded and written a chunk at a time,
+ * the persistence context is cleared after every chunk. Orders are loaded together with their items.
+ */
+@Service
+public class ExportServiceImp implements ExportService {
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductMapper productMapper;
+    @Autowired
+    private OrderMapper orderMapper;
+    @Autowired
+    private UserMapper userMapper;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Value("${export.chunk-size}")
+    private int chunkSize;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportProducts(DataFormat format, OutputStream output) throws IOException {
+        export(format, output, productRepository.streamAllProductIds(),
+                productIds -> inOrder(productIds, productRepository.findAllById(productIds), Product::getProductId),
+                product -> productMapper.toDto(product),
+                new Object[]{"productId", "title", "description", "price", "discountedPrice", "quantity", "addedDate",
+                        "live", "stock", "productImage", "categoryId"},
+                (product, csvWriter) -> csvWriter.writeRecord(product.getProductId(), product.getTitle(),
+                        product.getDescription(), product.getPrice(), product.getDiscountedPrice(), product.getQuantity(),
+                        product.getAddedDate(), product.isLive(), product.isStock(), product.getProductImage(),
+                        product.getCategory() == null ? null : product.getCategory().getCategoryId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportOrders(DataFormat format, OutputStream output) throws IOException {
+        export(format, output, orderRepository.streamAllOrderIds(),
+                orderIds -> inOrder(orderIds, orderRepository.findByOrderIdIn(orderIds), Order::getOrderId),
+                order -> orderMapper.toDto(order),
+                new Object[]{"orderId", "userId", "orderStatus", "paymentStatus", "orderAmount", "billingName",
+                        "billingPhone", "billingAddress", "orderedDate", "deliveredDate", "orderItemId", "productId",
+                        "quantity", "totalPrice"},
+                ExportServiceImp::writeOrder);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUsers(DataFormat format, OutputStream output) throws IOException {
+        export(format, output, userRepository.streamAllUserIds(),
+                userIds -> inOrder(userIds, userRepository.findAllById(userIds), User::getUserId),
+                user -> {
+                    UserDto userDto = userMapper.toDto(user);
+                    userDto.setPassword(null);
+                    return userDto;
+                },
+                new Object[]{"userId", "name", "email", "gender", "about", "imageName"},
+                (user, csvWriter) -> csvWriter.writeRecord(user.getUserId(), user.getName(), user.getEmail(),
+                        user.getGender(), user.getAbout(), user.getImageName()));
+    }
+
+    private <T> void export(final DataFormat format, final OutputStream output, final Stream<String> ids,
+                            final Function<List<String>, List<T>> loader, final Function<T, Object> toDto,
+                            final Object[] csvHeader, final CsvRecords<T> csvRecords) throws IOException {
+        // exported rows must not push hot entities out of second level cache
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        CsvWriter csvWriter = new CsvWriter(writer);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        // values are separated by the line break written after each of them, not by the default space
+        generator.setRootValueSeparator(null);
+        ObjectWriter jsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        if (format == DataFormat.CSV) {
+            csvWriter.writeRecord(csvHeader);
+        }
+        try (ids) {
+            Iterator<String> iterator = ids.iterator();
+            List<String> chunk = new ArrayList<>(chunkSize);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() < chunkSize && iterator.hasNext()) {
+                    continue;
+                }
+                for (T row : loader.apply(chunk)) {
+                    if (format == DataFormat.CSV) {
+                        csvRecords.write(row, csvWriter);
+                    } else {
+                        jsonWriter.writeValue(generator, toDto.apply(row));
+                        generator.writeRaw('\n');
+                    }
+                }
+                generator.flush();
+                writer.flush();
+                chunk.clear();
+                entityManager.clear();
+            }
+        }
+        generator.flush();
+        writer.flush();
+    }
+
+    // one record per order item, order columns repeated, orders without items get one record with empty item columns
+    private static void writeOrder(final Order order, final CsvWriter csvWriter) throws IOException {
+        String userId = order.getUser() == null ? null : order.getUser().getUserId();
+        if (order.getOrderItems().isEmpty()) {
+            csvWriter.writeRecord(order.getOrderId(), userId, order.getOrderStatus(), order.getPaymentStatus(),
+                    order.getOrderAmount(), order.getBillingName(), order.getBillingPhone(), order.getBillingAddress(),
+                    order.getOrderedDate(), order.getDeliveredDate(), null, null, null, null);
+        }
+        for (OrderItem orderItem : order.getOrderItems()) {
+            csvWriter.writeRecord(order.getOrderId(), userId, order.getOrderStatus(), order.getPaymentStatus(),
+                    order.getOrderAmount(), order.getBillingName(), order.getBillingPhone(), order.getBillingAddress(),
+                    order.getOrderedDate(), order.getDeliveredDate(), orderItem.getOrderItemId(),
+                    orderItem.getProduct() == null ? null : orderItem.getProduct().getProductId(),
+                    orderItem.getQuantity(), orderItem.getTotalPrice());
+        }
+    }
+
+    // rows of one chunk in cursor order
+    private static <T> List<T> inOrder(final List<String> ids, final List<T> rows, final Function<T, String> idOf) {
+        Map<String, T> rowMap = rows.stream().collect(Collectors.toMap(idOf, Function.identity(), (first, second) -> first));
+        return ids.stream().map(rowMap::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    @FunctionalInterface
+    private interface CsvRecords<T> {
+        void write(T row, CsvWriter csvWriter) throws IOException;
+    }
+}
@@ -1,13 +1,16 @@
 package com.shopping.electronic.store.service;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 public interface FileService {
     String uploadFile(MultipartFile file, String path) throws IOException;
 
-    InputStream getResource(String path, String name) throws FileNotFoundException;
+    // Write requested size (thumbnail, listing, detail) of stored image to response, answering conditional and
+    // range requests. Original image is written when no size is given and until the size is generated
+    void serveImage(String path, String name, String size, HttpServletRequest request, HttpServletResponse response) throws IOException;
 }
@@ -1,22 +1,54 @@
 package com.shopping.electronic.store.service;
 
 import com.shopping.electronic.store.exception.BadApiRequestException;
+import com.shopping.electronic.store.exception.ResourceNotFoundException;
+import com.shopping.electronic.store.util.ImageVariant;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
 @Service
 public class FileServiceImp implements FileService {
+
+    // request attributes of tomcat's sendfile support, the connector then copies file to socket in kernel
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+    @Value("${image.cache.max-age}")
+    private long cacheMaxAge;
+
     @Override
     public String uploadFile(MultipartFile file, String path) throws IOException {
         String originalFileName = file.getOriginalFilename();
@@ -36,6 +68,7 @@ public class FileServiceImp implements FileService {
                     folder.mkdirs();
                 }
                 Files.copy(file.getInputStream(), Paths.get(fileNameWithPath));
+                imageVariantService.generateVariants(path, originalFileName);
                 return originalFileName;
             } else {
                 throw new BadApiRequestException("File with extension: " + extension + " not allowed !");
@@ -46,9 +79,94 @@ public class FileServiceImp implements FileService {
     }
 
     @Override
-    public InputStream getResource(String path, String name) throws FileNotFoundException {
-        String fullPath = path + File.separator + name;
-        InputStream inputStream = new FileInputStream(fullPath);
-        return inputStream;
+    public void serveImage(String path, String name, String size, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageVariant variant = ImageVariant.fromParameter(size);
+        if (variant == null) {
+            serveFile(path, name, cacheMaxAge, request, response);
+            return;
+        }
+        // folder of the original when it is small enough to stand in for the variant
+        String variantPath = imageVariantService.variantPath(path, name, variant);
+        if (variantPath != null) {
+            serveFile(variantPath, name, cacheMaxAge, request, response);
+        } else {
+            // original stands in for a variant still being generated, so clients revalidate instead of keeping it
+            serveFile(path, name, 0, request, response);
+        }
+    }
+
+    private void serveFile(final String path, final String name, final long maxAge,
+                           final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        Path folder = Paths.get(path).toAbsolutePath().normalize();
+        Path file = name == null ? folder : folder.resolve(name).normalize();
+        if (!file.startsWith(folder) || !Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException("Image not found !!");
+        }
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePublic().getHeaderValue());
+        // sets ETag and Last-Modified, and 304 when client copy is still current
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        response.setContentType(MediaTypeFactory.getMediaType(file.toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // a range of an outdated copy is answered with whole file, as are multiple ranges
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges = parseRanges(range);
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(length);
+                end = ranges.get(0).getRangeEnd(length);
+                // valid range outside of the file, e.g. starting at its length
+                if (start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        response.setContentLengthLong(end - start + 1);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        // no sendfile, e.g. another connector or mock requests: channel transfer into response stream
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long transferred = channel.transferTo(position, end + 1 - position, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    // a malformed range header is ignored and whole file served (RFC 7233)
+    private static List<HttpRange> parseRanges(final String range) {
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException ex) {
+            return Collections.emptyList();
+        }
     }
 }
@@ -0,0 +1,15 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.util.ImageVariant;
+
+public interface ImageVariantService {
+
+    // Queue generation of all variants of an uploaded image, returns without waiting for it
+    void generateVariants(String path, String name);
+
+    // Folder holding given variant of the image, the image folder itself when the original is not larger than
+    // the variant, null while it is not generated yet
+    String variantPath(String path, String name, ImageVariant variant);
+
+    void deleteVariants(String path, String name);
+}
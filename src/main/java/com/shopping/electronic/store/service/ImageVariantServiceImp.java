@@ -0,0 +1,191 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.util.ImageVariant;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Generates resized variants of uploaded images on a bounded background pool.
+ * Every variant is written to a temporary file and moved into place, so a half written variant is never served.
+ * When the pool is saturated the upload is not delayed, its variants are skipped and the original keeps being served.
+ * An original not larger than a variant is not resized, a marker file in the variant folder records that it stands in.
+ */
+@Service
+@Slf4j
+public class ImageVariantServiceImp implements ImageVariantService {
+
+    private static final String ORIGINAL_MARKER = ".original";
+
+    @Value("${image.variants.threads}")
+    private int threads;
+    @Value("${image.variants.queue-capacity}")
+    private int queueCapacity;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void startExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stopExecutor() {
+        executor.shutdown();
+    }
+
+    @Override
+    public void generateVariants(String path, String name) {
+        try {
+            executor.execute(() -> generate(path, name));
+        } catch (RejectedExecutionException ex) {
+            log.warn("Image variant queue is full, serving original of {} only.", name);
+        }
+    }
+
+    @Override
+    public String variantPath(String path, String name, ImageVariant variant) {
+        if (name == null || variant == null) {
+            return null;
+        }
+        Path folder = Paths.get(path, variant.folderName());
+        if (Files.isRegularFile(folder.resolve(name))) {
+            return folder.toString();
+        }
+        return Files.isRegularFile(folder.resolve(name + ORIGINAL_MARKER)) ? path : null;
+    }
+
+    @Override
+    public void deleteVariants(String path, String name) {
+        if (name == null) {
+            return;
+        }
+        for (ImageVariant variant : ImageVariant.values()) {
+            try {
+                Files.deleteIfExists(Paths.get(path, variant.folderName(), name));
+                Files.deleteIfExists(Paths.get(path, variant.folderName(), name + ORIGINAL_MARKER));
+            } catch (IOException ex) {
+                log.info("Image variant {} of {} could not be deleted.", variant, name);
+            }
+        }
+    }
+
+    private void generate(final String path, final String name) {
+        Path original = Paths.get(path, name);
+        try {
+            int[] originalSize = new int[2];
+            BufferedImage source = read(original, originalSize);
+            if (source == null) {
+                log.info("Image {} has no readable format, no variants generated.", name);
+                return;
+            }
+            int longerEdge = Math.max(originalSize[0], originalSize[1]);
+            for (ImageVariant variant : ImageVariant.values()) {
+                Path folder = Paths.get(path, variant.folderName());
+                if (longerEdge > variant.getMaxSize()) {
+                    write(resize(source, variant.getMaxSize(), isPng(name)), folder, name);
+                } else {
+                    // smaller originals are served as they are
+                    Files.createDirectories(folder);
+                    Files.write(folder.resolve(name + ORIGINAL_MARKER), new byte[0]);
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Image variants of {} could not be generated.", name, ex);
+        }
+    }
+
+    // decodes image subsampled down to about the largest variant, a huge upload is never fully held in memory
+    private static BufferedImage read(final Path original, final int[] originalSize) throws IOException {
+        ImageInputStream input = ImageIO.createImageInputStream(original.toFile());
+        if (input == null) {
+            return null;
+        }
+        try (input) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                originalSize[0] = reader.getWidth(0);
+                originalSize[1] = reader.getHeight(0);
+                int step = Math.max(1, Math.max(originalSize[0], originalSize[1]) / ImageVariant.DETAIL.getMaxSize());
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage resize(final BufferedImage source, final int maxSize, final boolean png) {
+        double scale = (double) maxSize / Math.max(source.getWidth(), source.getHeight());
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        BufferedImage target = new BufferedImage(width, height, png ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (!png) {
+                // jpeg has no transparency
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+            }
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static void write(final BufferedImage image, final Path folder, final String name) throws IOException {
+        Files.createDirectories(folder);
+        Path temporary = Files.createTempFile(folder, "variant", ".tmp");
+        try {
+            if (!ImageIO.write(image, isPng(name) ? "png" : "jpg", temporary.toFile())) {
+                throw new IOException("No image writer for " + name);
+            }
+            Files.move(temporary, folder.resolve(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static boolean isPng(final String name) {
+        return name.toLowerCase(Locale.ROOT).endsWith(".png");
+    }
+}
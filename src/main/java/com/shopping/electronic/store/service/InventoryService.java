@@ -0,0 +1,13 @@
+package com.shopping.electronic.store.service;
+
+import java.util.Map;
+
+public interface InventoryService {
+
+    // Reserve quantity of every product (productId -> quantity), all or nothing. Locks the products until the
+    // transaction ends, call it last with everything else of the transaction already written
+    void reserveStock(Map<String, Integer> quantities);
+
+    // Put quantity of every product (productId -> quantity) back to stock
+    void releaseStock(Map<String, Integer> quantities);
+}
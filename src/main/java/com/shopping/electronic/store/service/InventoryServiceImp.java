@@ -0,0 +1,91 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.exception.BadApiRequestException;
+import com.shopping.electronic.store.repository.ProductRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Stock bookkeeping done with single conditional UPDATE statements, so concurrent checkouts of the same
+ * product can never oversell. The row lock taken by the update is held until the caller's transaction ends,
+ * callers reserve stock as their last statement so the lock only covers the update and the commit.
+ * Products are always updated in id order, so two orders sharing products cannot deadlock each other.
+ */
+@Service
+public class InventoryServiceImp implements InventoryService {
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private ProductListingService productListingService;
+    @Autowired
+    private ProductFacetService productFacetService;
+
+    @Override
+    @Transactional
+    public void reserveStock(Map<String, Integer> quantities) {
+        Map<String, Integer> sorted = new TreeMap<>(quantities);
+        Map<String, Integer> changes = new HashMap<>();
+        sorted.forEach((productId, quantity) -> {
+            if (quantity <= 0) {
+                throw new BadApiRequestException("Invalid quantity for product: " + productId);
+            }
+            // failure rolls back reservations already made in this transaction
+            if (productRepository.reserveStock(productId, quantity) == 0) {
+                throw new BadApiRequestException("Not enough stock available for product: " + productId);
+            }
+            changes.put(productId, -quantity);
+        });
+        productsChanged(changes);
+    }
+
+    @Override
+    @Transactional
+    public void releaseStock(Map<String, Integer> quantities) {
+        Map<String, Integer> sorted = new TreeMap<>(quantities);
+        Map<String, Integer> changes = new HashMap<>();
+        sorted.forEach((productId, quantity) -> {
+            if (quantity > 0) {
+                productRepository.releaseStock(productId, quantity);
+                changes.put(productId, quantity);
+            }
+        });
+        productsChanged(changes);
+    }
+
+    // cached product details and listings carry quantity and stock, update them once the new values are visible.
+    // Listings and facets apply the change in memory instead of reading the products again
+    private void productsChanged(final Map<String, Integer> changes) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    updateProducts(changes);
+                }
+            });
+        } else {
+            updateProducts(changes);
+        }
+    }
+
+    private void updateProducts(final Map<String, Integer> changes) {
+        Cache cache = cacheManager.getCache("products");
+        if (cache != null) {
+            changes.keySet().forEach(cache::evict);
+        }
+        productListingService.quantityChanged(changes);
+        productFacetService.quantityChanged(changes);
+    }
+}
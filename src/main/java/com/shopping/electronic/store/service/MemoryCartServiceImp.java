@@ -0,0 +1,359 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.dto.AddItemToCartRequest;
+import com.shopping.electronic.store.dto.CartDto;
+import com.shopping.electronic.store.dto.CartItemDto;
+import com.shopping.electronic.store.dto.ProductDto;
+import com.shopping.electronic.store.exception.ResourceNotFoundException;
+import com.shopping.electronic.store.mapper.CartMapper;
+import com.shopping.electronic.store.model.Cart;
+import com.shopping.electronic.store.model.CartItem;
+import com.shopping.electronic.store.model.User;
+import com.shopping.electronic.store.repository.CartRepository;
+import com.shopping.electronic.store.repository.ProductRepository;
+import com.shopping.electronic.store.repository.UserRepository;
+import com.shopping.electronic.store.util.IdGenerator;
+import com.shopping.electronic.store.util.KeyedLocks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * Cart store for click heavy traffic, enabled with cart.store=memory. Carts of active users are changed in memory
+ * and a background thread writes changed carts to the database in batches, each cart once however often it changed.
+ * Only a product new to the cart is written at once, so every item handed out has its cart item id.
+ * Unchanged carts beyond max-carts are evicted and loaded again on next access, changed carts stay until written.
+ * Changes not yet written are lost when the instance crashes, on shutdown they are written.
+ */
+@Service
+@ConditionalOnProperty(name = "cart.store", havingValue = "memory")
+@Slf4j
+public class MemoryCartServiceImp implements CartService {
+
+    // cache value of users without cart
+    private static final CartDto NO_CART = new CartDto();
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CartMapper cartMapper;
+    @Autowired
+    private IdGenerator idGenerator;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Value("${cart.memory.max-carts}")
+    private int maxCarts;
+    @Value("${cart.memory.max-changed-carts}")
+    private int maxChangedCarts;
+    @Value("${cart.memory.flush-interval-ms}")
+    private long flushIntervalMillis;
+    @Value("${cart.memory.flush-batch-size}")
+    private int flushBatchSize;
+    private final KeyedLocks userLocks = new KeyedLocks();
+    // userId -> cart changed since it was last written, never evicted
+    private final Map<String, CartDto> changedCarts = new ConcurrentHashMap<>();
+    // userId -> cart as written in the database
+    private Cache<String, CartDto> unchangedCarts;
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate callerTransactionTemplate;
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void start() {
+        unchangedCarts = Caffeine.newBuilder().maximumSize(maxCarts).build();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        callerTransactionTemplate = new TransactionTemplate(transactionManager);
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushChangedCarts, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+        flushChangedCarts();
+    }
+
+    @Override
+    public CartDto addItemToCart(String userId, AddItemToCartRequest request) {
+        ProductDto product = transactionTemplate.execute(status -> productService.getProduct(request.getProductId()));
+        return changeCart(userId, cart -> {
+            CartItemDto item = cart.getItems().stream()
+                    .filter(cartItem -> cartItem.getProduct().getProductId().equals(request.getProductId()))
+                    .findFirst()
+                    .orElse(null);
+            boolean newItem = item == null;
+            if (newItem) {
+                item = new CartItemDto();
+                cart.getItems().add(item);
+            }
+            item.setProduct(product);
+            item.setQuantity(request.getQuantity());
+            item.setTotalPrice(request.getQuantity() * product.getDiscountedPrice());
+            return newItem;
+        });
+    }
+
+    @Override
+    public void removeItemFromCart(String userId, int cartItem) {
+        changeCart(userId, cart -> {
+            if (!cart.getItems().removeIf(item -> item.getCartItemId() == cartItem)) {
+                throw new ResourceNotFoundException("Cart Item not found");
+            }
+            return false;
+        });
+    }
+
+    @Override
+    public void clearCart(String userId) {
+        changeCart(userId, cart -> {
+            cart.getItems().clear();
+            return false;
+        });
+    }
+
+    @Override
+    public CartDto getCartByUser(String userId) {
+        return userLocks.withLock(userId, () -> {
+            CartDto cart = cart(userId);
+            return cart == NO_CART ? null : copyOf(cart);
+        });
+    }
+
+    // writes the cart in the caller's transaction, once that commits the cart is loaded again on next access
+    @Override
+    public void flushCart(String userId) {
+        userLocks.withLock(userId, () -> {
+            CartDto cart = changedCarts.get(userId);
+            Cart saved = cart == null ? null : callerTransactionTemplate.execute(status -> write(userId, cart));
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                if (cart != null) {
+                    written(userId, cart, saved);
+                }
+                return null;
+            }
+            // on rollback the cart stays changed and is written by the flusher
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userLocks.withLock(userId, () -> {
+                        // a change accepted after the flush, before this commit, is kept and written later
+                        boolean unchanged = cart == null ? !changedCarts.containsKey(userId) : changedCarts.remove(userId, cart);
+                        if (unchanged) {
+                            unchangedCarts.invalidate(userId);
+                        }
+                        return null;
+                    });
+                }
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Method to write all changed carts, in batches of flush batch size
+     */
+    void flushChangedCarts() {
+        try {
+            List<String> userIds = new ArrayList<>(changedCarts.keySet());
+            // locks of a batch are always taken in the same order
+            Collections.sort(userIds);
+            for (int from = 0; from < userIds.size(); from += flushBatchSize) {
+                List<String> batch = userIds.subList(from, Math.min(from + flushBatchSize, userIds.size()));
+                withLocks(batch, 0, () -> writeBatch(batch));
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Changed carts could not be written.", ex);
+        }
+    }
+
+    // change returns true when the cart has to be written at once, otherwise it is left to the flusher
+    private CartDto changeCart(final String userId, final Predicate<CartDto> change) {
+        return userLocks.withLock(userId, () -> {
+            boolean changedBefore = changedCarts.containsKey(userId);
+            CartDto cart = cart(userId);
+            CartDto changed = cart == NO_CART ? newCart() : copyOf(cart);
+            boolean writeNow = change.test(changed) || changedCarts.size() >= maxChangedCarts;
+            changedCarts.put(userId, changed);
+            unchangedCarts.invalidate(userId);
+            if (writeNow) {
+                try {
+                    written(userId, changed, transactionTemplate.execute(status -> write(userId, changed)));
+                } catch (RuntimeException ex) {
+                    // cart is left as it was before this change
+                    if (changedBefore) {
+                        changedCarts.put(userId, cart);
+                    } else {
+                        changedCarts.remove(userId);
+                        unchangedCarts.put(userId, cart);
+                    }
+                    throw ex;
+                }
+            }
+            return copyOf(changed);
+        });
+    }
+
+    // cart of user from memory or database, called with the user's lock held
+    private CartDto cart(final String userId) {
+        CartDto cart = changedCarts.get(userId);
+        if (cart == null) {
+            cart = unchangedCarts.getIfPresent(userId);
+        }
+        if (cart == null) {
+            CartDto loaded = transactionTemplate.execute(status -> {
+                User user = userRepository.findById(userId)
+                        .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+                Cart saved = cartRepository.findByUser(user);
+                return saved == null ? NO_CART : cartMapper.toDto(saved);
+            });
+            cart = loaded == null ? NO_CART : loaded;
+            unchangedCarts.put(userId, cart);
+        }
+        return cart;
+    }
+
+    private CartDto newCart() {
+        return CartDto.builder()
+                .cartId(idGenerator.nextId())
+                .createdDate(new Date())
+                .items(new ArrayList<>())
+                .build();
+    }
+
+    private void withLocks(final List<String> userIds, final int index, final Runnable action) {
+        if (index == userIds.size()) {
+            action.run();
+            return;
+        }
+        userLocks.withLock(userIds.get(index), () -> {
+            withLocks(userIds, index + 1, action);
+            return null;
+        });
+    }
+
+    // called with the locks of all given users held, a batch failing is written again cart by cart
+    private void writeBatch(final List<String> userIds) {
+        Map<String, CartDto> carts = new LinkedHashMap<>();
+        userIds.forEach(userId -> {
+            CartDto cart = changedCarts.get(userId);
+            if (cart != null) {
+                carts.put(userId, cart);
+            }
+        });
+        Map<String, Cart> saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                Map<String, Cart> savedCarts = new LinkedHashMap<>();
+                carts.forEach((userId, cart) -> savedCarts.put(userId, write(userId, cart)));
+                return savedCarts;
+            });
+        } catch (RuntimeException ex) {
+            if (userIds.size() > 1) {
+                userIds.forEach(userId -> writeBatch(Collections.singletonList(userId)));
+                return;
+            }
+            log.warn("Cart of user {} could not be written, it is loaded again from the database.", userIds.get(0), ex);
+            changedCarts.remove(userIds.get(0));
+            return;
+        }
+        carts.forEach((userId, cart) -> written(userId, cart, saved.get(userId)));
+    }
+
+    // database cart of user made equal to given cart, null when the user no longer exists
+    private Cart write(final String userId, final CartDto changed) {
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            return null;
+        }
+        Cart cart = cartRepository.findByUser(user);
+        if (cart == null) {
+            cart = new Cart();
+            cart.setCartId(changed.getCartId());
+            cart.setCreatedDate(changed.getCreatedDate());
+            cart.setUser(user);
+        }
+        Map<String, CartItemDto> changedItems = changed.getItems().stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getProductId(), Function.identity()));
+        cart.getItems().removeIf(item -> !changedItems.containsKey(item.getProduct().getProductId()));
+        Map<String, CartItem> items = cart.getItems().stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getProductId(), Function.identity(), (first, second) -> first));
+        for (CartItemDto changedItem : changedItems.values()) {
+            CartItem item = items.get(changedItem.getProduct().getProductId());
+            if (item == null) {
+                item = CartItem.builder()
+                        .product(productRepository.getReferenceById(changedItem.getProduct().getProductId()))
+                        .cart(cart)
+                        .build();
+                cart.getItems().add(item);
+            }
+            item.setQuantity(changedItem.getQuantity());
+            item.setTotalPrice(changedItem.getTotalPrice());
+        }
+        return cartRepository.save(cart);
+    }
+
+    // written cart becomes unchanged, with the ids of its new items; called with the user's lock held
+    private void written(final String userId, final CartDto cart, final Cart saved) {
+        if (!changedCarts.remove(userId, cart)) {
+            return;
+        }
+        if (saved == null) {
+            unchangedCarts.invalidate(userId);
+            return;
+        }
+        Map<String, Integer> itemIds = saved.getItems().stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getProductId(), CartItem::getCartItemId, (first, second) -> first));
+        cart.setCartId(saved.getCartId());
+        cart.getItems().forEach(item -> item.setCartItemId(itemIds.getOrDefault(item.getProduct().getProductId(), item.getCartItemId())));
+        unchangedCarts.put(userId, cart);
+    }
+
+    private static CartDto copyOf(final CartDto cart) {
+        return CartDto.builder()
+                .cartId(cart.getCartId())
+                .createdDate(cart.getCreatedDate())
+                .items(cart.getItems().stream()
+                        .map(item -> new CartItemDto(item.getCartItemId(), item.getProduct(), item.getQuantity(), item.getTotalPrice()))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+}
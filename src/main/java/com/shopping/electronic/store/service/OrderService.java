@@ -2,6 +2,7 @@ package com.shopping.electronic.store.service;
 
 import com.shopping.electronic.store.dto.CreateOrderRequest;
 import com.shopping.electronic.store.dto.OrderDto;
+import com.shopping.electronic.store.util.CursorPage;
 
 import java.util.List;
 
@@ -14,4 +15,6 @@ public interface OrderService {
     List<OrderDto> getAllOrdersOfUser(String userId);
 
     List<OrderDto> getAllOrders(int pageNumber, int pageSize, String sortBy, String sortDir);
+
+    CursorPage<OrderDto> getAllOrders(String cursor, int pageSize, String sortBy, String sortDir);
 }
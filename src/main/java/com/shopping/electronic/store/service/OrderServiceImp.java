@@ -4,27 +4,33 @@ import com.shopping.electronic.store.dto.CreateOrderRequest;
 import com.shopping.electronic.store.dto.OrderDto;
 import com.shopping.electronic.store.exception.BadApiRequestException;
 import com.shopping.electronic.store.exception.ResourceNotFoundException;
+import com.shopping.electronic.store.mapper.OrderMapper;
 import com.shopping.electronic.store.model.Cart;
 import com.shopping.electronic.store.model.CartItem;
 import com.shopping.electronic.store.model.Order;
 import com.shopping.electronic.store.model.OrderItem;
 import com.shopping.electronic.store.model.User;
 import com.shopping.electronic.store.repository.CartRepository;
+import com.shopping.electronic.store.repository.KeysetQueryRepository;
 import com.shopping.electronic.store.repository.OrderRepository;
 import com.shopping.electronic.store.repository.UserRepository;
+import com.shopping.electronic.store.util.CursorPage;
+import com.shopping.electronic.store.util.IdGenerator;
 
 import java.util.Date;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class OrderServiceImp implements OrderService {
@@ -36,10 +42,21 @@ public class OrderServiceImp implements OrderService {
     @Autowired
     private CartRepository cartRepository;
     @Autowired
-    private ModelMapper modelMapper;
+    private CartService cartService;
+    @Autowired
+    private KeysetQueryRepository keysetQueryRepository;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private OrderMapper orderMapper;
+    @Autowired
+    private IdGenerator idGenerator;
 
     @Override
+    @Transactional
     public OrderDto createOrder(CreateOrderRequest createOrderRequest) {
+        // cart changes still held in memory are written first, before this transaction reads anything
+        cartService.flushCart(createOrderRequest.getUserId());
         User user = userRepository.findById(createOrderRequest.getUserId())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         Cart cart = cartRepository.findById(createOrderRequest.getCartId())
@@ -48,17 +65,10 @@ public class OrderServiceImp implements OrderService {
         if (cartItems.size() <= 0) {
             throw new BadApiRequestException("Invalid number of items in cart !!!");
         }
-        Order order = Order.builder()
-                .billingName(createOrderRequest.getBillingName())
-                .billingPhone(createOrderRequest.getBillingPhone())
-                .billingAddress(createOrderRequest.getBillingAddress())
-                .orderedDate(new Date())
-                .deliveredDate(null)
-                .paymentStatus(createOrderRequest.getPaymentStatus())
-                .orderStatus(createOrderRequest.getOrderStatus())
-                .orderId(UUID.randomUUID().toString())
-                .user(user)
-                .build();
+        Order order = orderMapper.toEntity(createOrderRequest);
+        order.setOrderedDate(new Date());
+        order.setOrderId(idGenerator.nextId());
+        order.setUser(user);
 
         AtomicReference<Integer> orderAmount = new AtomicReference<>(0);
         List<OrderItem> orderItems = cartItems.stream().map(cartItem -> {
@@ -80,14 +90,21 @@ public class OrderServiceImp implements OrderService {
         cart.getItems().clear();
         cartRepository.save(cart);
         Order savedOrder = orderRepository.save(order);
+        // last statement before commit, concurrent checkouts of a product wait for its row lock only until then
+        inventoryService.reserveStock(orderedQuantities(orderItems));
 
-        return modelMapper.map(savedOrder, OrderDto.class);
+        return orderMapper.toDto(savedOrder);
     }
 
     @Override
+    @Transactional
     public void removeOrder(String orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found !!!"));
+        // delivered items have left the store, anything else goes back to stock
+        if (!"DELIVERED".equals(order.getOrderStatus())) {
+            inventoryService.releaseStock(orderedQuantities(order.getOrderItems()));
+        }
         orderRepository.delete(order);
     }
 
@@ -95,9 +112,9 @@ public class OrderServiceImp implements OrderService {
     public List<OrderDto> getAllOrdersOfUser(String userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        List<Order> orders = orderRepository.findByUser(user);
+        List<Order> orders = orderRepository.findDistinctByUser(user);
         List<OrderDto> orderDtoList = orders.stream().map(order ->
-                modelMapper.map(order, OrderDto.class)
+                orderMapper.toDto(order)
         ).collect(Collectors.toList());
         return orderDtoList;
     }
@@ -106,10 +123,34 @@ public class OrderServiceImp implements OrderService {
     public List<OrderDto> getAllOrders(int pageNumber, int pageSize, String sortBy, String sortDir) {
         Sort sort = sortDir.equals("ASC") ? Sort.by(sortBy) : Sort.by(sortBy).descending();
         Pageable pageable = PageRequest.of(pageNumber, pageSize, sort);
-        List<Order> orders = orderRepository.findAll(pageable).toList();
-        List<OrderDto> orderDtoList = orders.stream().map(order ->
-                modelMapper.map(order, OrderDto.class)
+        List<String> orderIds = orderRepository.findAllOrderIds(pageable).toList();
+        List<OrderDto> orderDtoList = fetchWithItems(orderIds).stream().map(order ->
+                orderMapper.toDto(order)
         ).collect(Collectors.toList());
         return orderDtoList;
     }
+
+    @Override
+    public CursorPage<OrderDto> getAllOrders(String cursor, int pageSize, String sortBy, String sortDir) {
+        CursorPage<String> orderIds = keysetQueryRepository.findSlice(Order.class, null, sortBy, sortDir, cursor, pageSize)
+                .map(Order::getOrderId);
+        List<OrderDto> orderDtoList = fetchWithItems(orderIds.getContent()).stream().map(order ->
+                orderMapper.toDto(order)
+        ).collect(Collectors.toList());
+        return new CursorPage<>(orderDtoList, orderIds.getNextCursor(), orderIds.isHasNext());
+    }
+
+    // orders with their items in one statement, kept in the order of given ids
+    private List<Order> fetchWithItems(final List<String> orderIds) {
+        Map<String, Order> orderMap = orderRepository.findByOrderIdIn(orderIds)
+                .stream()
+                .collect(Collectors.toMap(Order::getOrderId, Function.identity(), (first, second) -> first));
+        return orderIds.stream().map(orderMap::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    // productId -> total quantity ordered
+    private static Map<String, Integer> orderedQuantities(final List<OrderItem> orderItems) {
+        return orderItems.stream()
+                .collect(Collectors.toMap(orderItem -> orderItem.getProduct().getProductId(), OrderItem::getQuantity, Integer::sum));
+    }
 }
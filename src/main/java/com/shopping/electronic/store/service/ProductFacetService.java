@@ -0,0 +1,27 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.dto.ProductFacetsDto;
+import com.shopping.electronic.store.model.Product;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ProductFacetService {
+
+    // Counts of products matching all given filters per category, price bucket, live and stock, filters may be null
+    ProductFacetsDto getFacets(String categoryId, String priceBucket, Boolean live, Boolean stock);
+
+    // Index saved product with its current attributes
+    void productSaved(Product product);
+
+    void productDeleted(String productId);
+
+    // Apply quantity changes (productId -> change) of a stock update, the stock facet follows the new quantity
+    void quantityChanged(Map<String, Integer> changes);
+
+    // Read given products again, e.g. after they were changed by a bulk update
+    void refresh(Collection<String> productIds);
+
+    // Read all products again, returns number of indexed products
+    int rebuild();
+}
@@ -0,0 +1,213 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.dto.ProductFacetsDto;
+import com.shopping.electronic.store.model.Product;
+import com.shopping.electronic.store.repository.ProductRepository;
+import com.shopping.electronic.store.util.BitmapIndex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Facet counts of the storefront sidebar answered from an in-memory bitmap index over category, price bucket, live
+ * and stock of every product, instead of one count query per category. The index is built once the application is
+ * ready, follows every product change made through this instance and can be rebuilt on demand for recovery.
+ */
+@Service
+@Slf4j
+public class ProductFacetServiceImp implements ProductFacetService {
+
+    private static final String CATEGORY = "category";
+    private static final String PRICE_BUCKET = "priceBucket";
+    private static final String LIVE = "live";
+    private static final String STOCK = "stock";
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Value("${catalog.facets.price-buckets}")
+    private int[] priceBucketBounds;
+    private final BitmapIndex facetIndex = new BitmapIndex();
+    // productId -> quantity, stock updates only send the change, guarded by changeLock
+    private final Map<String, Integer> quantities = new HashMap<>();
+    // a rebuild must not overwrite changes made while it reads products
+    private final ReentrantLock changeLock = new ReentrantLock();
+    private volatile boolean built;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void createTransactionTemplate() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // products are read in a new persistence context, not the stale one of a transaction just committed
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Method to build facet index once application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildFacetIndex() {
+        rebuild();
+    }
+
+    @Override
+    public ProductFacetsDto getFacets(String categoryId, String priceBucket, Boolean live, Boolean stock) {
+        if (!built) {
+            rebuild();
+        }
+        Map<String, String> filters = new HashMap<>();
+        putIfPresent(filters, CATEGORY, categoryId);
+        putIfPresent(filters, PRICE_BUCKET, priceBucket);
+        putIfPresent(filters, LIVE, live);
+        putIfPresent(filters, STOCK, stock);
+        Map<String, Map<String, Integer>> counts = facetIndex.facetCounts(filters);
+        return ProductFacetsDto.builder()
+                .count(facetIndex.count(filters))
+                .categories(counts.getOrDefault(CATEGORY, Map.of()))
+                .priceBuckets(counts.getOrDefault(PRICE_BUCKET, Map.of()))
+                .live(counts.getOrDefault(LIVE, Map.of()))
+                .stock(counts.getOrDefault(STOCK, Map.of()))
+                .build();
+    }
+
+    @Override
+    public void productSaved(Product product) {
+        String categoryId = product.getCategory() == null ? null : product.getCategory().getCategoryId();
+        Map<String, String> values = facetValues(categoryId, product.getDiscountedPrice(), product.isLive(), product.isStock());
+        changeLock.lock();
+        try {
+            facetIndex.put(product.getProductId(), values);
+            quantities.put(product.getProductId(), product.getQuantity());
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Override
+    public void productDeleted(String productId) {
+        changeLock.lock();
+        try {
+            facetIndex.remove(productId);
+            quantities.remove(productId);
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Override
+    public void quantityChanged(Map<String, Integer> changes) {
+        Set<String> unknown = new HashSet<>();
+        changeLock.lock();
+        try {
+            changes.forEach((productId, change) -> {
+                Integer quantity = quantities.get(productId);
+                Map<String, String> values = facetIndex.get(productId);
+                if (quantity == null || values == null) {
+                    unknown.add(productId);
+                    return;
+                }
+                quantities.put(productId, quantity + change);
+                // same rule as the stock update statements, in stock while quantity is left
+                values.put(STOCK, String.valueOf(quantity + change > 0));
+                facetIndex.put(productId, values);
+            });
+        } finally {
+            changeLock.unlock();
+        }
+        if (!unknown.isEmpty()) {
+            refresh(unknown);
+        }
+    }
+
+    @Override
+    public void refresh(Collection<String> productIds) {
+        changeLock.lock();
+        try {
+            List<Product> products = new ArrayList<>();
+            transactionTemplate.executeWithoutResult(status -> products.addAll(productRepository.findAllById(productIds)));
+            Set<String> deleted = new HashSet<>(productIds);
+            products.forEach(product -> {
+                deleted.remove(product.getProductId());
+                productSaved(product);
+            });
+            deleted.forEach(this::productDeleted);
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Override
+    public int rebuild() {
+        changeLock.lock();
+        try {
+            Map<String, Map<String, String>> items = new HashMap<>();
+            Map<String, Integer> itemQuantities = new HashMap<>();
+            transactionTemplate.execute(status -> {
+                productRepository.findAllFacets().forEach(product -> {
+                    items.put(product.getId(), facetValues(product.getCategoryId(), product.getDiscountedPrice(),
+                            product.isLive(), product.isStock()));
+                    itemQuantities.put(product.getId(), product.getQuantity());
+                });
+                return null;
+            });
+            facetIndex.replaceAll(items);
+            quantities.clear();
+            quantities.putAll(itemQuantities);
+            built = true;
+            log.info("Product facet index built with {} products.", items.size());
+            return items.size();
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    private Map<String, String> facetValues(final String categoryId, final int discountedPrice, final boolean live,
+                                            final boolean stock) {
+        Map<String, String> values = new LinkedHashMap<>();
+        putIfPresent(values, CATEGORY, categoryId);
+        values.put(PRICE_BUCKET, priceBucket(discountedPrice));
+        values.put(LIVE, String.valueOf(live));
+        values.put(STOCK, String.valueOf(stock));
+        return values;
+    }
+
+    // bounds 1000, 5000 give buckets 0-999, 1000-4999 and 5000+
+    private String priceBucket(final int price) {
+        int bucket = 0;
+        while (bucket < priceBucketBounds.length && price >= priceBucketBounds[bucket]) {
+            bucket++;
+        }
+        if (bucket == priceBucketBounds.length) {
+            return priceBucketBounds[bucket - 1] + "+";
+        }
+        int from = bucket == 0 ? 0 : priceBucketBounds[bucket - 1];
+        return from + "-" + (priceBucketBounds[bucket] - 1);
+    }
+
+    private static void putIfPresent(final Map<String, String> map, final String key, final Object value) {
+        if (value != null) {
+            map.put(key, String.valueOf(value));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.dto.CategoryDto;
+import com.shopping.electronic.store.dto.ProductDto;
+import com.shopping.electronic.store.model.Product;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ProductListingService {
+
+    // Whether pages sorted by given property are served from the listings
+    boolean supports(String sortBy);
+
+    List<ProductDto> getLiveProducts(int pageNumber, int pageSize, String sortBy, String sortDir);
+
+    List<ProductDto> getStockProducts(int pageNumber, int pageSize, String sortBy, String sortDir);
+
+    // Put saved product into the listings it belongs to, take it out of the others
+    void productSaved(Product product);
+
+    void productDeleted(String productId);
+
+    // Apply quantity changes (productId -> change) of a stock update, listed products are not read again
+    void quantityChanged(Map<String, Integer> changes);
+
+    // Put listed products of changed category again with its new details
+    void categoryChanged(CategoryDto category);
+
+    // Read given products again, e.g. after they were changed by a bulk update
+    void refresh(Collection<String> productIds);
+
+    // Read all listed products again, e.g. after a bulk import
+    void rebuild();
+}
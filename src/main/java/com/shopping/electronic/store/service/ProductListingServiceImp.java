@@ -0,0 +1,242 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.dto.CategoryDto;
+import com.shopping.electronic.store.dto.ProductDto;
+import com.shopping.electronic.store.mapper.ProductMapper;
+import com.shopping.electronic.store.model.Product;
+import com.shopping.electronic.store.repository.ProductRepository;
+import com.shopping.electronic.store.util.SortedListing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Live and in stock products held in memory, one listing per sortable property, so a storefront page is a slice
+ * of an array instead of a sorted query and a count over unindexed flags. Listings are built once the application
+ * is ready and follow every product change made through this instance, until built pages are read from the database.
+ */
+@Service
+@Slf4j
+public class ProductListingServiceImp implements ProductListingService {
+
+    // sortBy -> order of listing, ties broken by id
+    private static final Map<String, Comparator<ProductDto>> SORTS = sorts();
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductMapper productMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private final Map<String, SortedListing<ProductDto>> liveListings = listings();
+    private final Map<String, SortedListing<ProductDto>> stockListings = listings();
+    // changes are applied to all listings one at a time
+    private final ReentrantLock changeLock = new ReentrantLock();
+    private volatile boolean built;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void createTransactionTemplate() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // products are read in a new persistence context, not the stale one of a transaction just committed
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Method to build listings once application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildListings() {
+        rebuild();
+    }
+
+    @Override
+    public boolean supports(String sortBy) {
+        return built && SORTS.containsKey(sortBy);
+    }
+
+    @Override
+    public List<ProductDto> getLiveProducts(int pageNumber, int pageSize, String sortBy, String sortDir) {
+        return liveListings.get(sortBy).slice((long) pageNumber * pageSize, pageSize, !sortDir.equals("ASC"));
+    }
+
+    @Override
+    public List<ProductDto> getStockProducts(int pageNumber, int pageSize, String sortBy, String sortDir) {
+        return stockListings.get(sortBy).slice((long) pageNumber * pageSize, pageSize, !sortDir.equals("ASC"));
+    }
+
+    @Override
+    public void productSaved(Product product) {
+        // own instance, the returned dto may be changed by the caller
+        ProductDto listed = productMapper.toDto(product);
+        changeLock.lock();
+        try {
+            put(List.of(listed), List.of());
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Override
+    public void productDeleted(String productId) {
+        changeLock.lock();
+        try {
+            put(List.of(), List.of(productId));
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Override
+    public void quantityChanged(Map<String, Integer> changes) {
+        Set<String> unlisted = new HashSet<>();
+        changeLock.lock();
+        try {
+            List<ProductDto> changed = new ArrayList<>(changes.size());
+            changes.forEach((productId, change) -> {
+                ProductDto listed = listed(productId);
+                if (listed == null) {
+                    unlisted.add(productId);
+                    return;
+                }
+                int quantity = listed.getQuantity() + change;
+                // same rule as the stock update statements, in stock while quantity is left
+                changed.add(listed.toBuilder().quantity(quantity).stock(quantity > 0).build());
+            });
+            // all line items of an order in one copy of each listing
+            put(changed, List.of());
+        } finally {
+            changeLock.unlock();
+        }
+        // neither live nor in stock before, only these are read
+        if (!unlisted.isEmpty()) {
+            refresh(unlisted);
+        }
+    }
+
+    @Override
+    public void categoryChanged(CategoryDto category) {
+        changeLock.lock();
+        try {
+            Map<String, ProductDto> listed = new LinkedHashMap<>();
+            for (SortedListing<ProductDto> listing : List.of(first(liveListings), first(stockListings))) {
+                listing.slice(0, listing.size(), false).stream()
+                        .filter(product -> product.getCategory() != null
+                                && category.getCategoryId().equals(product.getCategory().getCategoryId()))
+                        .forEach(product -> listed.put(product.getProductId(), product));
+            }
+            put(listed.values().stream()
+                    .map(product -> product.toBuilder().category(category).build())
+                    .collect(Collectors.toList()), List.of());
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Override
+    public void refresh(Collection<String> productIds) {
+        changeLock.lock();
+        try {
+            List<ProductDto> products = new ArrayList<>();
+            transactionTemplate.executeWithoutResult(status -> productRepository.findAllById(productIds)
+                    .forEach(product -> products.add(productMapper.toDto(product))));
+            Set<String> deleted = new HashSet<>(productIds);
+            products.forEach(product -> deleted.remove(product.getProductId()));
+            put(products, deleted);
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        changeLock.lock();
+        try {
+            List<ProductDto> products = new ArrayList<>();
+            transactionTemplate.executeWithoutResult(status -> productRepository.findAllListed()
+                    .forEach(product -> products.add(productMapper.toDto(product))));
+            List<ProductDto> live = products.stream().filter(ProductDto::isLive).collect(Collectors.toList());
+            List<ProductDto> inStock = products.stream().filter(ProductDto::isStock).collect(Collectors.toList());
+            liveListings.values().forEach(listing -> listing.replaceAll(live));
+            stockListings.values().forEach(listing -> listing.replaceAll(inStock));
+            built = true;
+            log.info("Product listings built with {} live and {} in stock products.", live.size(), inStock.size());
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    // changed products are listed or removed by their flags, deleted ones are removed
+    private void put(final Collection<ProductDto> products, final Collection<String> deletedIds) {
+        put(liveListings, products, deletedIds, ProductDto::isLive);
+        put(stockListings, products, deletedIds, ProductDto::isStock);
+    }
+
+    private static void put(final Map<String, SortedListing<ProductDto>> listings,
+                            final Collection<ProductDto> products, final Collection<String> deletedIds,
+                            final Predicate<ProductDto> listed) {
+        List<ProductDto> kept = new ArrayList<>(products.size());
+        List<String> removed = new ArrayList<>(deletedIds);
+        products.forEach(product -> {
+            if (listed.test(product)) {
+                kept.add(product);
+            } else {
+                removed.add(product.getProductId());
+            }
+        });
+        listings.values().forEach(listing -> listing.update(kept, removed));
+    }
+
+    private ProductDto listed(final String productId) {
+        ProductDto product = first(liveListings).get(productId);
+        return product != null ? product : first(stockListings).get(productId);
+    }
+
+    // all listings of a map hold the same products
+    private static SortedListing<ProductDto> first(final Map<String, SortedListing<ProductDto>> listings) {
+        return listings.values().iterator().next();
+    }
+
+    private static Map<String, SortedListing<ProductDto>> listings() {
+        Map<String, SortedListing<ProductDto>> listings = new LinkedHashMap<>();
+        SORTS.forEach((sortBy, order) -> listings.put(sortBy, new SortedListing<>(order, ProductDto::getProductId)));
+        return listings;
+    }
+
+    // null first like MySQL, titles case insensitive like its default collation
+    private static Map<String, Comparator<ProductDto>> sorts() {
+        Map<String, Comparator<ProductDto>> sorts = new LinkedHashMap<>();
+        sorts.put("title", by(ProductDto::getTitle, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)));
+        sorts.put("price", by(ProductDto::getPrice, Comparator.naturalOrder()));
+        sorts.put("discountedPrice", by(ProductDto::getDiscountedPrice, Comparator.naturalOrder()));
+        sorts.put("quantity", by(ProductDto::getQuantity, Comparator.naturalOrder()));
+        sorts.put("addedDate", by(ProductDto::getAddedDate, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return sorts;
+    }
+
+    private static <U> Comparator<ProductDto> by(final Function<ProductDto, U> property, final Comparator<U> order) {
+        return Comparator.comparing(property, order).thenComparing(ProductDto::getProductId);
+    }
+}
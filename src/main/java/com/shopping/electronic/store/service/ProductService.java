@@ -1,8 +1,16 @@
 package com.shopping.electronic.store.service;
 
 import com.shopping.electronic.store.dto.ProductDto;
+import com.shopping.electronic.store.dto.ProductQuery;
+import com.shopping.electronic.store.util.BatchResult;
+import com.shopping.electronic.store.util.CursorPage;
+import com.shopping.electronic.store.util.DataFormat;
+import com.shopping.electronic.store.util.ImportReport;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 public interface ProductService {
 
@@ -10,21 +18,53 @@ public interface ProductService {
 
     ProductDto updateProduct(String productId, ProductDto productDto);
 
+    // Change image name only, the product returned by getProduct may be shared by the cache and is never changed
+    ProductDto updateProductImage(String productId, String imageName);
+
     void deleteProduct(String productId);
 
     List<ProductDto> getAllProduct(int pageNumber, int pageSize, String sortBy, String sortDir);
 
+    CursorPage<ProductDto> getAllProduct(String cursor, int pageSize, String sortBy, String sortDir);
+
     ProductDto getProduct(String productId);
 
+    // products of given ids in request order, unknown ids are reported as missing
+    BatchResult<ProductDto> getProducts(List<String> productIds);
+
     List<ProductDto> getAllLiveProduct(int pageNumber, int pageSize, String sortBy, String sortDir);
 
+    CursorPage<ProductDto> getAllLiveProduct(String cursor, int pageSize, String sortBy, String sortDir);
+
     List<ProductDto> getAllStockProduct(int pageNumber, int pageSize, String sortBy, String sortDir);
 
-    List<ProductDto> searchProduct(String keyword);
+    CursorPage<ProductDto> getAllStockProduct(String cursor, int pageSize, String sortBy, String sortDir);
+
+    List<ProductDto> searchProduct(String keyword, int pageNumber, int pageSize);
+
+    // Forget products deleted along with their category
+    void productsDeleted(List<String> productIds);
 
     ProductDto createProductWithCategory(String categoryId, ProductDto productDto);
 
     ProductDto updateProductCategory(String productId, String categoryId);
 
     List<ProductDto> getAllProductOfCategory(String categoryId, int pageNumber, int pageSize, String sortBy, String sortDir);
+
+    CursorPage<ProductDto> getAllProductOfCategory(String categoryId, String cursor, int pageSize, String sortBy, String sortDir);
+
+    // Sparse variants of the listings, only the id and given fields of every product are read and returned
+    List<Map<String, Object>> getAllProduct(List<String> fields, int pageNumber, int pageSize, String sortBy, String sortDir);
+
+    List<Map<String, Object>> getAllLiveProduct(List<String> fields, int pageNumber, int pageSize, String sortBy, String sortDir);
+
+    List<Map<String, Object>> getAllStockProduct(List<String> fields, int pageNumber, int pageSize, String sortBy, String sortDir);
+
+    List<Map<String, Object>> getAllProductOfCategory(String categoryId, List<String> fields, int pageNumber, int pageSize,
+                                                      String sortBy, String sortDir);
+
+    // products matching all given filters
+    CursorPage<ProductDto> queryProducts(ProductQuery productQuery, String cursor, int pageSize, String sortBy, String sortDir);
+
+    ImportReport importProducts(InputStream input, DataFormat format) throws IOException;
 }
@@ -2,32 +2,73 @@ package com.shopping.electronic.store.service;
 
 import com.shopping.electronic.store.dto.CategoryDto;
 import com.shopping.electronic.store.dto.ProductDto;
+import com.shopping.electronic.store.dto.ProductQuery;
 import com.shopping.electronic.store.exception.ResourceNotFoundException;
+import com.shopping.electronic.store.mapper.ProductMapper;
 import com.shopping.electronic.store.model.Category;
 import com.shopping.electronic.store.model.Product;
 import com.shopping.electronic.store.repository.CategoryRepository;
+import com.shopping.electronic.store.repository.KeysetQueryRepository;
+import com.shopping.electronic.store.repository.ProductBatchRepository;
+import com.shopping.electronic.store.repository.ProductQueryPlanner;
 import com.shopping.electronic.store.repository.ProductRepository;
+import com.shopping.electronic.store.repository.ProjectionQueryRepository;
+import com.shopping.electronic.store.util.BatchResult;
+import com.shopping.electronic.store.util.CsvReader;
+import com.shopping.electronic.store.util.CursorPage;
+import com.shopping.electronic.store.util.DataFormat;
+import com.shopping.electronic.store.util.IdGenerator;
+import com.shopping.electronic.store.util.ImportReport;
+import com.shopping.electronic.store.util.KeywordIndex;
+import com.shopping.electronic.store.util.SingleFlight;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.JoinType;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
 @Service
 @Slf4j
+@CacheConfig(cacheNames = "products")
 public class ProductServiceImp implements ProductService {
 
     @Autowired
@@ -35,20 +76,63 @@ public class ProductServiceImp implements ProductService {
     @Autowired
     private CategoryRepository categoryRepository;
     @Autowired
-    private ModelMapper modelMapper;
+    private KeysetQueryRepository keysetQueryRepository;
+    @Autowired
+    private ProjectionQueryRepository projectionQueryRepository;
+    @Autowired
+    private ProductMapper productMapper;
+    @Autowired
+    private ImageVariantService imageVariantService;
+    @Autowired
+    private ProductBatchRepository productBatchRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private Validator validator;
+    @Autowired
+    private IdGenerator idGenerator;
+    @Autowired
+    private SingleFlight<ProductDto> productLoads;
+    @Autowired
+    private ProductListingService productListingService;
+    @Autowired
+    private ProductFacetService productFacetService;
     @Value("${product.image.path}")
     private String imageUploadPath;
+    @Value("${batch.max-ids}")
+    private int maxBatchIds;
+    @Value("${catalog.import.batch-size}")
+    private int importBatchSize;
+    @Value("${catalog.import.max-reported-errors}")
+    private int maxReportedErrors;
+    private final KeywordIndex searchIndex = new KeywordIndex();
+
+    /**
+     * Method to load product titles into search index once application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildSearchIndex() {
+        searchIndex.clear();
+        productRepository.findAllKeywords().forEach(entry -> searchIndex.put(entry.getId(), entry.getKeyword()));
+        log.info("Product search index built with {} products.", searchIndex.size());
+    }
 
     @Override
     public ProductDto createProduct(ProductDto productDto) {
-        String productId = UUID.randomUUID().toString();
+        String productId = idGenerator.nextId();
         productDto.setProductId(productId);
         productDto.setAddedDate(new Date());
-        Product product = productRepository.save(modelMapper.map(productDto, Product.class));
-        return modelMapper.map(product, ProductDto.class);
+        Product product = productRepository.save(productMapper.toEntity(productDto));
+        searchIndex.put(product.getProductId(), product.getTitle());
+        productListingService.productSaved(product);
+        productFacetService.productSaved(product);
+        return productMapper.toDto(product);
     }
 
     @Override
+    @CacheEvict(key = "#productId")
     public ProductDto updateProduct(String productId, ProductDto productDto) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found !!!"));
@@ -61,10 +145,25 @@ public class ProductServiceImp implements ProductService {
         product.setStock(productDto.isStock());
         product.setProductImage(productDto.getProductImage());
         Product updatedProduct = productRepository.save(product);
-        return modelMapper.map(updatedProduct, ProductDto.class);
+        searchIndex.put(updatedProduct.getProductId(), updatedProduct.getTitle());
+        productListingService.productSaved(updatedProduct);
+        productFacetService.productSaved(updatedProduct);
+        return productMapper.toDto(updatedProduct);
     }
 
     @Override
+    @CacheEvict(key = "#productId")
+    public ProductDto updateProductImage(String productId, String imageName) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found !!!"));
+        product.setProductImage(imageName);
+        Product updatedProduct = productRepository.save(product);
+        productListingService.productSaved(updatedProduct);
+        return productMapper.toDto(updatedProduct);
+    }
+
+    @Override
+    @CacheEvict(key = "#productId")
     public void deleteProduct(String productId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found !!!"));
@@ -76,7 +175,11 @@ public class ProductServiceImp implements ProductService {
             log.info("Product image not found in folder.");
             ex.printStackTrace();
         }
+        imageVariantService.deleteVariants(imageUploadPath, product.getProductImage());
         productRepository.delete(product);
+        searchIndex.remove(productId);
+        productListingService.productDeleted(productId);
+        productFacetService.productDeleted(productId);
     }
 
     @Override
@@ -88,69 +191,120 @@ public class ProductServiceImp implements ProductService {
                 productList
                         .stream()
                         .map(
-                                product -> modelMapper.map(product, ProductDto.class)
+                                product -> productMapper.toDto(product)
                         )
                         .collect(Collectors.toList());
         return productDtoList;
     }
 
     @Override
+    public CursorPage<ProductDto> getAllProduct(String cursor, int pageSize, String sortBy, String sortDir) {
+        return keysetQueryRepository.findSlice(Product.class, withCategory(null), sortBy, sortDir, cursor, pageSize)
+                .map(product -> productMapper.toDto(product));
+    }
+
+    @Override
+    @Cacheable(key = "#productId")
     public ProductDto getProduct(String productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found !!!"));
-        return modelMapper.map(product, ProductDto.class);
+        // concurrent cache misses of a hot product share one load
+        return productLoads.load(productId, () -> {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found !!!"));
+            return productMapper.toDto(product);
+        });
+    }
+
+    @Override
+    public BatchResult<ProductDto> getProducts(List<String> productIds) {
+        return BatchResult.lookup(productIds, maxBatchIds, productRepository::findAllById, Product::getProductId)
+                .map(product -> productMapper.toDto(product));
     }
 
     @Override
     public List<ProductDto> getAllLiveProduct(int pageNumber, int pageSize, String sortBy, String sortDir) {
+        if (productListingService.supports(sortBy)) {
+            return productListingService.getLiveProducts(pageNumber, pageSize, sortBy, sortDir);
+        }
         Sort sort = sortDir.equals("ASC") ? Sort.by(sortBy) : Sort.by(sortBy).descending();
         Pageable pageable = PageRequest.of(pageNumber, pageSize, sort);
         List<Product> productList = productRepository.findByLiveTrue(pageable).toList();
         List<ProductDto> productDtoList =
                 productList
                         .stream()
-                        .map(product -> modelMapper.map(product, ProductDto.class))
+                        .map(product -> productMapper.toDto(product))
                         .collect(Collectors.toList());
         return productDtoList;
     }
 
+    @Override
+    public CursorPage<ProductDto> getAllLiveProduct(String cursor, int pageSize, String sortBy, String sortDir) {
+        Specification<Product> live = (root, query, cb) -> cb.isTrue(root.get("live"));
+        return keysetQueryRepository.findSlice(Product.class, withCategory(live), sortBy, sortDir, cursor, pageSize)
+                .map(product -> productMapper.toDto(product));
+    }
+
     @Override
     public List<ProductDto> getAllStockProduct(int pageNumber, int pageSize, String sortBy, String sortDir) {
+        if (productListingService.supports(sortBy)) {
+            return productListingService.getStockProducts(pageNumber, pageSize, sortBy, sortDir);
+        }
         Sort sort = sortDir.equals("ASC") ? Sort.by(sortBy) : Sort.by(sortBy).descending();
         Pageable pageable = PageRequest.of(pageNumber, pageSize, sort);
         List<Product> productList = productRepository.findByStockTrue(pageable).toList();
         List<ProductDto> productDtoList =
                 productList
                         .stream()
-                        .map(product -> modelMapper.map(product, ProductDto.class))
+                        .map(product -> productMapper.toDto(product))
                         .collect(Collectors.toList());
         return productDtoList;
     }
 
     @Override
-    public List<ProductDto> searchProduct(String keyword) {
-        List<Product> productList = productRepository.findByTitleContaining(keyword);
+    public CursorPage<ProductDto> getAllStockProduct(String cursor, int pageSize, String sortBy, String sortDir) {
+        Specification<Product> inStock = (root, query, cb) -> cb.isTrue(root.get("stock"));
+        return keysetQueryRepository.findSlice(Product.class, withCategory(inStock), sortBy, sortDir, cursor, pageSize)
+                .map(product -> productMapper.toDto(product));
+    }
+
+    @Override
+    public List<ProductDto> searchProduct(String keyword, int pageNumber, int pageSize) {
+        List<String> productIds = searchIndex.search(keyword, pageNumber, pageSize);
+        Map<String, Product> productMap = productRepository.findAllById(productIds)
+                .stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
         List<ProductDto> productDtoList =
-                productList
+                productIds
                         .stream()
-                        .map(product -> modelMapper.map(product, ProductDto.class))
+                        .map(productMap::get)
+                        .filter(Objects::nonNull)
+                        .map(product -> productMapper.toDto(product))
                         .collect(Collectors.toList());
         return productDtoList;
     }
 
+    @Override
+    public void productsDeleted(List<String> productIds) {
+        productIds.forEach(searchIndex::remove);
+    }
+
     @Override
     public ProductDto createProductWithCategory(String categoryId, ProductDto productDto) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found !!"));
-        String productId = UUID.randomUUID().toString();
+        String productId = idGenerator.nextId();
         productDto.setProductId(productId);
         productDto.setAddedDate(new Date());
-        productDto.setCategory(modelMapper.map(category, CategoryDto.class));
-        Product product = productRepository.save(modelMapper.map(productDto, Product.class));
-        return modelMapper.map(product, ProductDto.class);
+        Product product = productMapper.toEntity(productDto);
+        product.setCategory(category);
+        product = productRepository.save(product);
+        searchIndex.put(product.getProductId(), product.getTitle());
+        productListingService.productSaved(product);
+        productFacetService.productSaved(product);
+        return productMapper.toDto(product);
     }
 
     @Override
+    @CacheEvict(key = "#productId")
     public ProductDto updateProductCategory(String productId, String categoryId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found !!"));
@@ -158,7 +312,9 @@ public class ProductServiceImp implements ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found !!"));
         product.setCategory(category);
         Product updatedProduct = productRepository.save(product);
-        return modelMapper.map(updatedProduct, ProductDto.class);
+        productListingService.productSaved(updatedProduct);
+        productFacetService.productSaved(updatedProduct);
+        return productMapper.toDto(updatedProduct);
     }
 
     @Override
@@ -171,8 +327,294 @@ public class ProductServiceImp implements ProductService {
         List<ProductDto> productDtoList =
                 productList
                         .stream()
-                        .map(product -> modelMapper.map(product, ProductDto.class))
+                        .map(product -> productMapper.toDto(product))
                         .collect(Collectors.toList());
         return productDtoList;
     }
+
+    @Override
+    public CursorPage<ProductDto> getAllProductOfCategory(String categoryId, String cursor, int pageSize, String sortBy, String sortDir) {
+        Category category = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found !!"));
+        Specification<Product> ofCategory = (root, query, cb) -> cb.equal(root.get("category"), category);
+        return keysetQueryRepository.findSlice(Product.class, withCategory(ofCategory), sortBy, sortDir, cursor, pageSize)
+                .map(product -> productMapper.toDto(product));
+    }
+
+    @Override
+    public List<Map<String, Object>> getAllProduct(List<String> fields, int pageNumber, int pageSize, String sortBy, String sortDir) {
+        return findFields(null, fields, pageNumber, pageSize, sortBy, sortDir);
+    }
+
+    @Override
+    public List<Map<String, Object>> getAllLiveProduct(List<String> fields, int pageNumber, int pageSize, String sortBy, String sortDir) {
+        if (productListingService.supports(sortBy)) {
+            return selectFields(productListingService.getLiveProducts(pageNumber, pageSize, sortBy, sortDir), fields);
+        }
+        Specification<Product> live = (root, query, cb) -> cb.isTrue(root.get("live"));
+        return findFields(live, fields, pageNumber, pageSize, sortBy, sortDir);
+    }
+
+    @Override
+    public List<Map<String, Object>> getAllStockProduct(List<String> fields, int pageNumber, int pageSize, String sortBy, String sortDir) {
+        if (productListingService.supports(sortBy)) {
+            return selectFields(productListingService.getStockProducts(pageNumber, pageSize, sortBy, sortDir), fields);
+        }
+        Specification<Product> inStock = (root, query, cb) -> cb.isTrue(root.get("stock"));
+        return findFields(inStock, fields, pageNumber, pageSize, sortBy, sortDir);
+    }
+
+    @Override
+    public List<Map<String, Object>> getAllProductOfCategory(String categoryId, List<String> fields, int pageNumber, int pageSize,
+                                                             String sortBy, String sortDir) {
+        Category category = categoryRepository.findById(categoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found !!"));
+        Specification<Product> ofCategory = (root, query, cb) -> cb.equal(root.get("category"), category);
+        return findFields(ofCategory, fields, pageNumber, pageSize, sortBy, sortDir);
+    }
+
+    @Override
+    public CursorPage<ProductDto> queryProducts(ProductQuery productQuery, String cursor, int pageSize, String sortBy, String sortDir) {
+        Specification<Product> filter = ProductQueryPlanner.toSpecification(productQuery);
+        return keysetQueryRepository.findSlice(Product.class, withCategory(filter), sortBy, sortDir, cursor, pageSize)
+                .map(product -> productMapper.toDto(product));
+    }
+
+    @Override
+    public ImportReport importProducts(InputStream input, DataFormat format) throws IOException {
+        ProductImport productImport = new ProductImport();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try {
+            if (format == DataFormat.CSV) {
+                readCsv(reader, productImport);
+            } else {
+                readNdjson(reader, productImport);
+            }
+            productImport.flush();
+        } finally {
+            // cached listings don't know about rows inserted so far
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+            productListingService.rebuild();
+            productFacetService.rebuild();
+        }
+        log.info("Product import finished, {} imported, {} failed.", productImport.report.getImported(), productImport.report.getFailed());
+        return productImport.report;
+    }
+
+    private void readNdjson(final BufferedReader reader, final ProductImport productImport) throws IOException {
+        ObjectReader productReader = objectMapper.readerFor(ProductDto.class);
+        long line = 0;
+        String row;
+        while ((row = reader.readLine()) != null) {
+            line++;
+            if (row.isBlank()) {
+                continue;
+            }
+            ProductDto productDto;
+            try {
+                productDto = productReader.readValue(row);
+            } catch (JsonProcessingException ex) {
+                productImport.failed(line, "Malformed JSON: " + ex.getOriginalMessage());
+                continue;
+            }
+            productImport.add(line, productDto);
+        }
+    }
+
+    private void readCsv(final BufferedReader reader, final ProductImport productImport) throws IOException {
+        CsvReader csvReader = new CsvReader(reader);
+        List<String> header = csvReader.readRecord();
+        if (header == null) {
+            return;
+        }
+        List<String> record;
+        while ((record = csvReader.readRecord()) != null) {
+            long line = csvReader.getRecordLine();
+            if (record.size() == 1 && record.get(0).isEmpty()) {
+                continue;
+            }
+            if (record.size() != header.size()) {
+                productImport.failed(line, "Expected " + header.size() + " fields but found " + record.size());
+                continue;
+            }
+            ProductDto productDto;
+            try {
+                productDto = toProductDto(header, record);
+            } catch (IllegalArgumentException ex) {
+                productImport.failed(line, ex.getMessage());
+                continue;
+            }
+            productImport.add(line, productDto);
+        }
+    }
+
+    // csv columns are named after ProductDto properties, category is given by categoryId, unknown columns are ignored
+    private static ProductDto toProductDto(final List<String> header, final List<String> record) {
+        ProductDto productDto = new ProductDto();
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).trim();
+            String value = record.get(i);
+            switch (column) {
+                case "title":
+                    productDto.setTitle(value);
+                    break;
+                case "description":
+                    productDto.setDescription(value);
+                    break;
+                case "price":
+                    productDto.setPrice(parseInt(column, value));
+                    break;
+                case "discountedPrice":
+                    productDto.setDiscountedPrice(parseInt(column, value));
+                    break;
+                case "quantity":
+                    productDto.setQuantity(parseInt(column, value));
+                    break;
+                case "live":
+                    productDto.setLive(parseBoolean(column, value));
+                    break;
+                case "stock":
+                    productDto.setStock(parseBoolean(column, value));
+                    break;
+                case "productImage":
+                    productDto.setProductImage(value.isEmpty() ? null : value);
+                    break;
+                case "categoryId":
+                    productDto.setCategory(value.isEmpty() ? null : CategoryDto.builder().categoryId(value).build());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return productDto;
+    }
+
+    private static int parseInt(final String column, final String value) {
+        if (value.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static boolean parseBoolean(final String column, final String value) {
+        String trimmed = value.trim();
+        if (trimmed.isEmpty() || trimmed.equalsIgnoreCase("false")) {
+            return false;
+        } else if (trimmed.equalsIgnoreCase("true")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Invalid " + column + ": " + value);
+    }
+
+    /**
+     * Rows of one import, validated rows are collected and inserted in batches.
+     * Each category is looked up once per import, a failed batch is retried row by row
+     * so only the offending rows are reported and the rest of the batch is still imported.
+     */
+    private final class ProductImport {
+
+        private final ImportReport report = new ImportReport();
+        private final Map<String, Category> categories = new HashMap<>();
+        private final List<Product> products = new ArrayList<>(importBatchSize);
+        private final List<Long> lines = new ArrayList<>(importBatchSize);
+
+        void add(final long line, final ProductDto productDto) {
+            Set<ConstraintViolation<ProductDto>> violations = validator.validate(productDto);
+            if (!violations.isEmpty()) {
+                failed(line, violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", ")));
+                return;
+            }
+            Category category = null;
+            if (productDto.getCategory() != null && productDto.getCategory().getCategoryId() != null) {
+                String categoryId = productDto.getCategory().getCategoryId();
+                if (!categories.containsKey(categoryId)) {
+                    categories.put(categoryId, categoryRepository.findById(categoryId).orElse(null));
+                }
+                category = categories.get(categoryId);
+                if (category == null) {
+                    failed(line, "Category not found: " + categoryId);
+                    return;
+                }
+            }
+            products.add(Product.builder()
+                    .productId(idGenerator.nextId())
+                    .title(productDto.getTitle())
+                    .description(productDto.getDescription())
+                    .price(productDto.getPrice())
+                    .discountedPrice(productDto.getDiscountedPrice())
+                    .quantity(productDto.getQuantity())
+                    .addedDate(new Date())
+                    .live(productDto.isLive())
+                    .stock(productDto.isStock())
+                    .productImage(productDto.getProductImage())
+                    .category(category)
+                    .build());
+            lines.add(line);
+            if (products.size() >= importBatchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (products.isEmpty()) {
+                return;
+            }
+            try {
+                productBatchRepository.insertAll(products);
+                products.forEach(this::imported);
+            } catch (DataAccessException ex) {
+                for (int i = 0; i < products.size(); i++) {
+                    try {
+                        productBatchRepository.insertAll(List.of(products.get(i)));
+                        imported(products.get(i));
+                    } catch (DataAccessException rowEx) {
+                        failed(lines.get(i), rowEx.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+            products.clear();
+            lines.clear();
+        }
+
+        void failed(final long line, final String message) {
+            report.rowFailed(line, message, maxReportedErrors);
+        }
+
+        private void imported(final Product product) {
+            report.rowImported();
+            searchIndex.put(product.getProductId(), product.getTitle());
+        }
+    }
+
+    // page of the id and given fields only, read with one tuple query
+    private List<Map<String, Object>> findFields(final Specification<Product> filter, final List<String> fields,
+                                                 final int pageNumber, final int pageSize, final String sortBy, final String sortDir) {
+        Sort sort = sortDir.equals("ASC") ? Sort.by(sortBy) : Sort.by(sortBy).descending();
+        Pageable pageable = PageRequest.of(pageNumber, pageSize, sort);
+        return projectionQueryRepository.findPage(Product.class, filter, fields, pageable);
+    }
+
+    // listed products are already in memory, only the requested fields are returned
+    private List<Map<String, Object>> selectFields(final List<ProductDto> products, final List<String> fields) {
+        List<String> selected = projectionQueryRepository.fields(Product.class, fields);
+        return products.stream().map(product -> {
+            DirectFieldAccessor accessor = new DirectFieldAccessor(product);
+            Map<String, Object> values = new LinkedHashMap<>();
+            selected.forEach(field -> values.put(field, accessor.getPropertyValue(field)));
+            return values;
+        }).collect(Collectors.toList());
+    }
+
+    // category is joined into slice query instead of one select per category
+    private static Specification<Product> withCategory(final Specification<Product> filter) {
+        Specification<Product> fetchCategory = (root, query, cb) -> {
+            root.fetch("category", JoinType.LEFT);
+            return null;
+        };
+        return fetchCategory.and(filter);
+    }
 }
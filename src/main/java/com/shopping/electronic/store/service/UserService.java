@@ -1,6 +1,8 @@
 package com.shopping.electronic.store.service;
 
 import com.shopping.electronic.store.dto.UserDto;
+import com.shopping.electronic.store.util.BatchResult;
+import com.shopping.electronic.store.util.CursorPage;
 
 import java.util.List;
 
@@ -10,11 +12,16 @@ public interface UserService {
 
     List<UserDto> getAllUser(int pageNumber, int pageSize, String sortBy, String sortDir);
 
+    CursorPage<UserDto> getAllUser(String cursor, int pageSize, String sortBy, String sortDir);
+
     UserDto getUserById(String userId);
 
+    // users of given ids in request order, unknown ids are reported as missing
+    BatchResult<UserDto> getUsersByIds(List<String> userIds);
+
     UserDto getUserByEmail(String email);
 
-    List<UserDto> searchUser(String keyword);
+    List<UserDto> searchUser(String keyword, int pageNumber, int pageSize);
 
     UserDto updateUser(UserDto userDto, String userId);
 
@@ -2,21 +2,30 @@ package com.shopping.electronic.store.service;
 
 import com.shopping.electronic.store.dto.UserDto;
 import com.shopping.electronic.store.exception.ResourceNotFoundException;
+import com.shopping.electronic.store.mapper.UserMapper;
 import com.shopping.electronic.store.model.User;
+import com.shopping.electronic.store.repository.KeysetQueryRepository;
 import com.shopping.electronic.store.repository.UserRepository;
+import com.shopping.electronic.store.util.BatchResult;
+import com.shopping.electronic.store.util.CursorPage;
+import com.shopping.electronic.store.util.IdGenerator;
+import com.shopping.electronic.store.util.KeywordIndex;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -27,18 +36,38 @@ import org.springframework.stereotype.Service;
 public class UserServiceImp implements UserService {
 
     @Autowired
-    private ModelMapper modelMapper;
+    private KeysetQueryRepository keysetQueryRepository;
+    @Autowired
+    private UserMapper userMapper;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private ImageVariantService imageVariantService;
+    @Autowired
+    private IdGenerator idGenerator;
+    @Value("${batch.max-ids}")
+    private int maxBatchIds;
     @Value("$user.profile.image.path")
     private String imagePath;
+    private final KeywordIndex searchIndex = new KeywordIndex();
+
+    /**
+     * Method to load user names into search index once application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildSearchIndex() {
+        searchIndex.clear();
+        userRepository.findAllKeywords().forEach(entry -> searchIndex.put(entry.getId(), entry.getKeyword()));
+        log.info("User search index built with {} users.", searchIndex.size());
+    }
 
     @Override
     public UserDto createUser(UserDto userDto) {
-        String userId = UUID.randomUUID().toString();
+        String userId = idGenerator.nextId();
         userDto.setUserId(userId);
-        User user = userRepository.save(modelMapper.map(userDto, User.class));
-        return modelMapper.map(user, UserDto.class);
+        User user = userRepository.save(userMapper.toEntity(userDto));
+        searchIndex.put(user.getUserId(), user.getName());
+        return userMapper.toDto(user);
     }
 
     @Override
@@ -50,33 +79,50 @@ public class UserServiceImp implements UserService {
                 userList
                         .stream()
                         .map(
-                                user -> modelMapper.map(user, UserDto.class)
+                                user -> userMapper.toDto(user)
                         )
                         .collect(Collectors.toList());
         return userDtoList;
     }
 
+    @Override
+    public CursorPage<UserDto> getAllUser(String cursor, int pageSize, String sortBy, String sortDir) {
+        return keysetQueryRepository.findSlice(User.class, null, sortBy, sortDir, cursor, pageSize)
+                .map(user -> userMapper.toDto(user));
+    }
+
     @Override
     public UserDto getUserById(String userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with given id."));
-        return modelMapper.map(user, UserDto.class);
+        return userMapper.toDto(user);
+    }
+
+    @Override
+    public BatchResult<UserDto> getUsersByIds(List<String> userIds) {
+        return BatchResult.lookup(userIds, maxBatchIds, userRepository::findAllById, User::getUserId)
+                .map(user -> userMapper.toDto(user));
     }
 
     @Override
     public UserDto getUserByEmail(String email) {
         User user = userRepository.findByEmail(email);
-        return modelMapper.map(user, UserDto.class);
+        return userMapper.toDto(user);
     }
 
     @Override
-    public List<UserDto> searchUser(String keyword) {
-        List<User> userList = userRepository.findByNameContaining(keyword);
+    public List<UserDto> searchUser(String keyword, int pageNumber, int pageSize) {
+        List<String> userIds = searchIndex.search(keyword, pageNumber, pageSize);
+        Map<String, User> userMap = userRepository.findAllById(userIds)
+                .stream()
+                .collect(Collectors.toMap(User::getUserId, Function.identity()));
         List<UserDto> userDtoList =
-                userList
+                userIds
                         .stream()
+                        .map(userMap::get)
+                        .filter(Objects::nonNull)
                         .map(
-                                user -> modelMapper.map(user, UserDto.class)
+                                user -> userMapper.toDto(user)
                         )
                         .collect(Collectors.toList());
         return userDtoList;
@@ -93,7 +139,8 @@ public class UserServiceImp implements UserService {
         user.setPassword(userDto.getPassword());
         user.setImageName(userDto.getImageName());
         User updatedUser = userRepository.save(user);
-        return modelMapper.map(updatedUser, UserDto.class);
+        searchIndex.put(updatedUser.getUserId(), updatedUser.getName());
+        return userMapper.toDto(updatedUser);
     }
 
     @Override
@@ -109,7 +156,9 @@ public class UserServiceImp implements UserService {
             log.info("User image not found in folder.");
             ex.printStackTrace();
         }
+        imageVariantService.deleteVariants(imagePath, user.getImageName());
         userRepository.delete(user);
+        searchIndex.remove(userId);
         return "User deleted with given id";
     }
 }
@@ -0,0 +1,67 @@
+package com.shopping.electronic.store.util;
+
+import com.shopping.electronic.store.exception.BadApiRequestException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Entities requested by id in one call, found ones in request order and ids without entity listed as missing
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResult<T> {
+    private List<T> content = new ArrayList<>();
+    private List<String> missingIds = new ArrayList<>();
+
+    /**
+     * Method to load entities of given ids with one call of loader, repeated ids are looked up once
+     *
+     * @param ids    UUID ids, compared ignoring case
+     * @param maxIds
+     * @param loader loads entities of a collection of ids, e.g. findAllById
+     * @param idOf
+     * @return
+     */
+    public static <T> BatchResult<T> lookup(final List<String> ids, final int maxIds,
+                                            final Function<Collection<String>, ? extends Collection<T>> loader,
+                                            final Function<T, String> idOf) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BadApiRequestException("At least one id required !!");
+        }
+        Set<String> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > maxIds) {
+            throw new BadApiRequestException("At most " + maxIds + " ids can be requested at once !!");
+        }
+        Map<String, T> found = new HashMap<>();
+        loader.apply(requested).forEach(entity -> found.put(idOf.apply(entity).toLowerCase(Locale.ROOT), entity));
+        BatchResult<T> result = new BatchResult<>();
+        for (String id : requested) {
+            T entity = found.get(id.toLowerCase(Locale.ROOT));
+            if (entity == null) {
+                result.missingIds.add(id);
+            } else {
+                result.content.add(entity);
+            }
+        }
+        return result;
+    }
+
+    public <R> BatchResult<R> map(final Function<? super T, ? extends R> mapper) {
+        List<R> mapped = content.stream().map(mapper).collect(Collectors.toList());
+        return new BatchResult<>(mapped, missingIds);
+    }
+}
@@ -0,0 +1,95 @@
+package com.shopping.electronic.store.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 records one at a time, quoted fields may contain separators, quotes ("") and line breaks.
+ * Only the current record is held in memory.
+ */
+public class CsvReader {
+
+    private final Reader reader;
+    private long line = 1;
+    private long recordLine;
+    private int pending = -2;
+
+    public CsvReader(final Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Method to read next record
+     *
+     * @return fields of the record, null at end of input
+     * @throws IOException also when a quoted field is not closed
+     */
+    public List<String> readRecord() throws IOException {
+        int ch = next();
+        if (ch == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (ch == -1) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (ch == '"') {
+                    int following = next();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        ch = following;
+                        continue;
+                    }
+                } else {
+                    if (ch == '\n') {
+                        line++;
+                    }
+                    field.append((char) ch);
+                }
+            } else if (ch == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\r' || ch == '\n' || ch == -1) {
+                if (ch == '\r') {
+                    int following = next();
+                    if (following != '\n') {
+                        pending = following;
+                    }
+                }
+                if (ch != -1) {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) ch);
+            }
+            ch = next();
+        }
+    }
+
+    // line the last returned record started on, 1 based
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    private int next() throws IOException {
+        if (pending != -2) {
+            int ch = pending;
+            pending = -2;
+            return ch;
+        }
+        return reader.read();
+    }
+}
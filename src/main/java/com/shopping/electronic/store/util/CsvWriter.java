@@ -0,0 +1,52 @@
+package com.shopping.electronic.store.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Date;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Writes RFC 4180 records, fields containing separators, quotes or line breaks are quoted.
+ * Null is written as an empty field and dates as ISO-8601 instants.
+ */
+public class CsvWriter {
+
+    private final Writer writer;
+
+    // writes into the caller's writer, which is shared on purpose
+    @SuppressFBWarnings("EI_EXPOSE_REP2")
+    public CsvWriter(final Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Method to write one record terminated by CRLF
+     *
+     * @param fields
+     * @throws IOException
+     */
+    public void writeRecord(final Object... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(fields[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeField(final Object field) throws IOException {
+        if (field == null) {
+            return;
+        }
+        String value = field instanceof Date ? ((Date) field).toInstant().toString() : field.toString();
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
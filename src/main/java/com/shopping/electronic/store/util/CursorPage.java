@@ -0,0 +1,29 @@
+package com.shopping.electronic.store.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One slice of a keyset paginated listing, nextCursor is passed back to fetch the following slice
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content = new ArrayList<>();
+    private String nextCursor;
+    private boolean hasNext;
+
+    public <R> CursorPage<R> map(final Function<? super T, ? extends R> mapper) {
+        List<R> mapped = content.stream().map(mapper).collect(Collectors.toList());
+        return new CursorPage<>(mapped, nextCursor, hasNext);
+    }
+}
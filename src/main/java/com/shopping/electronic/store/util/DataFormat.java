@@ -0,0 +1,64 @@
+package com.shopping.electronic.store.util;
+
+import com.shopping.electronic.store.exception.BadApiRequestException;
+
+import java.util.Locale;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.MediaType;
+
+// Formats of bulk import and export, one record per line (ndjson) or per record after a header row (csv)
+public enum DataFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final MediaType mediaType;
+
+    DataFormat(final String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    // MediaType is immutable
+    @SuppressFBWarnings("EI_EXPOSE_REP")
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    // Content-Disposition of an export in this format, e.g. attachment; filename="products.csv"
+    public String contentDisposition(final String name) {
+        return ContentDisposition.attachment().filename(name + "." + name().toLowerCase(Locale.ROOT)).build().toString();
+    }
+
+    /**
+     * Method to pick format from request content type
+     *
+     * @param contentType
+     * @return
+     */
+    public static DataFormat fromContentType(final String contentType) {
+        if (contentType != null) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            for (DataFormat format : values()) {
+                if (format.mediaType.isCompatibleWith(mediaType)) {
+                    return format;
+                }
+            }
+        }
+        throw new BadApiRequestException("Unsupported import content type: " + contentType);
+    }
+
+    /**
+     * Method to parse format request parameter, ndjson or csv
+     *
+     * @param format
+     * @return
+     */
+    public static DataFormat fromParameter(final String format) {
+        try {
+            return valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BadApiRequestException("Invalid format: " + format);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.shopping.electronic.store.util;
+
+// Source of primary keys for new rows, ids are UUID strings so rows created before keep their ids
+public interface IdGenerator {
+
+    String nextId();
+}
@@ -0,0 +1,79 @@
+package com.shopping.electronic.store.util;
+
+import com.shopping.electronic.store.exception.BadApiRequestException;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Results of requests by client supplied idempotency key, kept for a limited time in this instance.
+ * A retry with the same key gets the first result without running the request again, concurrent duplicates wait
+ * for the one running execution. A failed execution is forgotten so the client can retry it.
+ * A key is bound to its first request, reusing it for a request that is not equal to it is rejected.
+ */
+public class IdempotentRequests<T> {
+
+    private final Cache<String, Execution<T>> executions;
+
+    public IdempotentRequests(final long timeToLiveMinutes, final long maxKeys) {
+        executions = Caffeine.newBuilder()
+                .expireAfterWrite(timeToLiveMinutes, TimeUnit.MINUTES)
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    /**
+     * Method to run request once per key
+     *
+     * @param key
+     * @param request   compared with equals to the first request of the key, must not be changed afterwards
+     * @param execution
+     * @return result of the first execution with this key
+     */
+    public T execute(final String key, final Object request, final Supplier<T> execution) {
+        Execution<T> started = new Execution<>(request);
+        Execution<T> running = executions.asMap().putIfAbsent(key, started);
+        if (running == null) {
+            try {
+                T result = execution.get();
+                started.result.complete(result);
+                return result;
+            } catch (Throwable ex) {
+                // errors too, duplicates waiting for the result must not wait forever
+                executions.asMap().remove(key, started);
+                started.result.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        if (!Objects.equals(running.request, request)) {
+            throw new BadApiRequestException("Idempotency key was already used for a different request");
+        }
+        try {
+            return running.result.join();
+        } catch (CompletionException ex) {
+            // duplicates waiting for a failed execution fail the same way
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    private static final class Execution<T> {
+        private final Object request;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Execution(final Object request) {
+            this.request = request;
+        }
+    }
+}
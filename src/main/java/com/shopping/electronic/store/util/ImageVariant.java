@@ -0,0 +1,44 @@
+package com.shopping.electronic.store.util;
+
+import com.shopping.electronic.store.exception.BadApiRequestException;
+
+import java.util.Locale;
+
+// Fixed sizes generated for every uploaded image, maxSize is the longer edge in pixels
+public enum ImageVariant {
+    THUMBNAIL(150),
+    LISTING(400),
+    DETAIL(1000);
+
+    private final int maxSize;
+
+    ImageVariant(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    // folder of the variant inside the image folder
+    public String folderName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Method to parse size request parameter, null or empty means original image
+     *
+     * @param size
+     * @return
+     */
+    public static ImageVariant fromParameter(final String size) {
+        if (size == null || size.isEmpty()) {
+            return null;
+        }
+        try {
+            return valueOf(size.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BadApiRequestException("Invalid image size: " + size);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.shopping.electronic.store.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Outcome of a bulk import, rejected rows are listed with their line up to the reporting limit
+@Getter
+@Setter
+@NoArgsConstructor
+public class ImportReport {
+    private long imported;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    public void rowImported() {
+        imported++;
+    }
+
+    public void rowFailed(final long line, final String message, final int maxErrors) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(line, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
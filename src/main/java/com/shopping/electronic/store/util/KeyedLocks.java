@@ -0,0 +1,47 @@
+package com.shopping.electronic.store.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * One lock per key, created when the key is first locked and dropped once its last holder or waiter is done.
+ * Unlike a fixed number of lock stripes two different keys never share a lock, so they never wait for each other.
+ * Locks are ReentrantLocks, a waiting virtual thread is unmounted instead of pinning its carrier thread.
+ */
+public class KeyedLocks {
+
+    private final ConcurrentHashMap<String, KeyLock> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Method to run action while holding the lock of given key
+     *
+     * @param key
+     * @param action
+     * @return result of action
+     */
+    public <T> T withLock(final String key, final Supplier<T> action) {
+        KeyLock lock = locks.compute(key, (k, existing) -> {
+            KeyLock used = existing == null ? new KeyLock() : existing;
+            used.users++;
+            return used;
+        });
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+            locks.computeIfPresent(key, (k, used) -> --used.users == 0 ? null : used);
+        }
+    }
+
+    // keys currently locked or waited for
+    int size() {
+        return locks.size();
+    }
+
+    private static final class KeyLock extends ReentrantLock {
+        // holders and waiters, only changed inside compute of the map
+        private int users;
+    }
+}
@@ -0,0 +1,157 @@
+package com.shopping.electronic.store.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index used for keyword search.
+ * Text is split into lower-cased alphanumeric tokens (letters and digits of any script), every query token
+ * is matched as a prefix and a document must match all query tokens. Exact token matches rank above prefix matches.
+ */
+public class KeywordIndex {
+
+    private static final int EXACT_MATCH_SCORE = 2;
+    private static final int PREFIX_MATCH_SCORE = 1;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{Alnum}]+", Pattern.UNICODE_CHARACTER_CLASS);
+
+    // token -> ids of documents containing it
+    private final ConcurrentSkipListMap<String, Set<String>> postings = new ConcurrentSkipListMap<>();
+    // id -> indexed text
+    private final Map<String, String> documents = new ConcurrentHashMap<>();
+
+    /**
+     * Method to add document to index or replace its text
+     *
+     * @param id
+     * @param text
+     */
+    public synchronized void put(final String id, final String text) {
+        remove(id);
+        if (text == null) {
+            return;
+        }
+        documents.put(id, text);
+        for (String token : tokenize(text)) {
+            postings.computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    /**
+     * Method to remove document from index
+     *
+     * @param id
+     */
+    public synchronized void remove(final String id) {
+        String text = documents.remove(id);
+        if (text == null) {
+            return;
+        }
+        for (String token : tokenize(text)) {
+            Set<String> ids = postings.get(token);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to remove all documents from index
+     */
+    public synchronized void clear() {
+        postings.clear();
+        documents.clear();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Method to search ids of matching documents, best match first
+     *
+     * @param query
+     * @param pageNumber
+     * @param pageSize
+     * @return
+     */
+    public List<String> search(final String query, final int pageNumber, final int pageSize) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty() || pageNumber < 0 || pageSize <= 0) {
+            return Collections.emptyList();
+        }
+        Map<String, Integer> scores = null;
+        for (String queryToken : queryTokens) {
+            Map<String, Integer> tokenScores = match(queryToken);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                Map<String, Integer> current = scores;
+                tokenScores.keySet().retainAll(current.keySet());
+                tokenScores.replaceAll((id, score) -> score + current.get(id));
+                scores = tokenScores;
+            }
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+        long from = (long) pageNumber * pageSize;
+        if (from >= scores.size()) {
+            return Collections.emptyList();
+        }
+        Map<String, Integer> ranked = scores;
+        Comparator<String> order = Comparator.<String>comparingInt(ranked::get).reversed()
+                .thenComparingInt(id -> documents.getOrDefault(id, "").length())
+                .thenComparing(id -> documents.getOrDefault(id, ""))
+                .thenComparing(Comparator.naturalOrder());
+        // only the matches up to the end of the page are kept and sorted, worst of them on top of the heap
+        int limit = (int) Math.min(ranked.size(), from + pageSize);
+        PriorityQueue<String> best = new PriorityQueue<>(limit, order.reversed());
+        for (String id : ranked.keySet()) {
+            best.add(id);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<String> ids = new ArrayList<>(best);
+        ids.sort(order);
+        return ids.subList((int) from, limit);
+    }
+
+    // best score per document for one query token
+    private Map<String, Integer> match(final String queryToken) {
+        Map<String, Integer> tokenScores = new HashMap<>();
+        NavigableMap<String, Set<String>> matches = postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false);
+        matches.forEach((token, ids) -> {
+            int score = token.equals(queryToken) ? EXACT_MATCH_SCORE : PREFIX_MATCH_SCORE;
+            ids.forEach(id -> tokenScores.merge(id, score, Math::max));
+        });
+        return tokenScores;
+    }
+
+    private static List<String> tokenize(final String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,12 @@
+package com.shopping.electronic.store.util;
+
+import java.util.UUID;
+
+// Random (version 4) UUIDs, new rows are spread all over primary key index
+public class RandomIdGenerator implements IdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.shopping.electronic.store.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Concurrent loads of the same key share one execution, callers arriving while it runs wait for its result
+ * or failure instead of loading again. Nothing is kept once the load is done, caching is left to the caller.
+ * Loads and coalesced calls are counted per name, with the share of coalesced calls as a gauge.
+ */
+public class SingleFlight<T> implements MeterBinder {
+
+    private final String name;
+    private final ConcurrentHashMap<String, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public SingleFlight(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Method to load value of key, or wait for the load already running
+     *
+     * @param key
+     * @param loader
+     * @return
+     */
+    public T load(final String key, final Supplier<T> loader) {
+        CompletableFuture<T> started = new CompletableFuture<>();
+        CompletableFuture<T> running = inFlight.putIfAbsent(key, started);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return running.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+                throw ex;
+            }
+        }
+        loads.increment();
+        try {
+            T value = loader.get();
+            started.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            started.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, started);
+        }
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder("single.flight.loads", loads, LongAdder::sum)
+                .description("Loads executed")
+                .tag("name", name)
+                .register(registry);
+        FunctionCounter.builder("single.flight.coalesced", coalesced, LongAdder::sum)
+                .description("Calls served by a load already running for the same key")
+                .tag("name", name)
+                .register(registry);
+        Gauge.builder("single.flight.coalescing.ratio", this, SingleFlight::coalescingRatio)
+                .description("Share of calls served by a load already running")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    double coalescingRatio() {
+        double total = loads.sum() + coalesced.sum();
+        return total == 0 ? 0 : coalesced.sum() / total;
+    }
+}
@@ -0,0 +1,152 @@
+package com.shopping.electronic.store.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Items kept sorted in an array that is copied on every change, a page is a plain slice of the current array
+ * read without locking. Changes cost a binary search and an array copy, meant for listings read far more often
+ * than they change. Changes made together are applied with one copy. The comparator has to tell apart any two items with different ids, and listed items must not
+ * change their sort values, a changed item is put again as a new instance.
+ */
+public class SortedListing<T> {
+
+    private final Comparator<T> comparator;
+    private final Function<T, String> idOf;
+    // id -> item as currently sorted, guarded by this
+    private final Map<String, T> items = new HashMap<>();
+    private volatile Object[] sorted = new Object[0];
+
+    public SortedListing(final Comparator<T> comparator, final Function<T, String> idOf) {
+        this.comparator = comparator;
+        this.idOf = idOf;
+    }
+
+    /**
+     * Method to add item or move it to the position of its new sort values
+     *
+     * @param item
+     */
+    public void put(final T item) {
+        update(List.of(item), List.of());
+    }
+
+    // item with given id, null when it is not listed
+    public synchronized T get(final String id) {
+        return items.get(id);
+    }
+
+    public void remove(final String id) {
+        update(List.of(), List.of(id));
+    }
+
+    /**
+     * Method to add, move and remove items with a single copy of the array
+     *
+     * @param changed    items to add or move, each id at most once
+     * @param removedIds ids of items to remove, none of them in changed
+     */
+    public synchronized void update(final Collection<T> changed, final Collection<String> removedIds) {
+        Object[] current = sorted;
+        int[] dropped = new int[changed.size() + removedIds.size()];
+        int dropCount = 0;
+        for (String id : removedIds) {
+            T previous = items.remove(id);
+            if (previous != null) {
+                dropped[dropCount++] = Arrays.binarySearch(items(current), previous, comparator);
+            }
+        }
+        for (T item : changed) {
+            T previous = items.put(idOf.apply(item), item);
+            if (previous != null) {
+                dropped[dropCount++] = Arrays.binarySearch(items(current), previous, comparator);
+            }
+        }
+        if (dropCount == 0 && changed.isEmpty()) {
+            return;
+        }
+        Arrays.sort(dropped, 0, dropCount);
+        List<T> added = new ArrayList<>(changed);
+        added.sort(comparator);
+        Object[] result = new Object[current.length - dropCount + added.size()];
+        // runs between removed and inserted positions are copied as they are
+        int from = 0;
+        int to = 0;
+        int drop = 0;
+        int add = 0;
+        int insertAt = insertionPoint(current, added, add);
+        while (true) {
+            int next = Math.min(drop < dropCount ? dropped[drop] : current.length, insertAt);
+            System.arraycopy(current, from, result, to, next - from);
+            to += next - from;
+            from = next;
+            if (insertAt == from && add < added.size()) {
+                // before an equal previous version of the same item that is dropped next
+                result[to++] = added.get(add++);
+                insertAt = insertionPoint(current, added, add);
+            } else if (drop < dropCount && dropped[drop] == from) {
+                from++;
+                drop++;
+            } else {
+                break;
+            }
+        }
+        sorted = result;
+    }
+
+    public synchronized void replaceAll(final Collection<T> all) {
+        items.clear();
+        all.forEach(item -> items.put(idOf.apply(item), item));
+        Object[] changed = items.values().toArray();
+        Arrays.sort(items(changed), comparator);
+        sorted = changed;
+    }
+
+    /**
+     * Method to read a page of items
+     *
+     * @param offset     number of items skipped in given direction
+     * @param limit
+     * @param descending
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> slice(final long offset, final int limit, final boolean descending) {
+        Object[] snapshot = sorted;
+        if (offset >= snapshot.length || limit <= 0) {
+            return Collections.emptyList();
+        }
+        int count = (int) Math.min(limit, snapshot.length - offset);
+        List<T> page = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = (int) (descending ? snapshot.length - 1 - offset - i : offset + i);
+            page.add((T) snapshot[index]);
+        }
+        return page;
+    }
+
+    public int size() {
+        return sorted.length;
+    }
+
+    // position in current array of added item at given index, array length once all are inserted
+    private int insertionPoint(final Object[] current, final List<T> added, final int index) {
+        if (index == added.size()) {
+            return current.length;
+        }
+        int found = Arrays.binarySearch(items(current), added.get(index), comparator);
+        return found < 0 ? -found - 1 : found;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T[] items(final Object[] array) {
+        return (T[]) array;
+    }
+}
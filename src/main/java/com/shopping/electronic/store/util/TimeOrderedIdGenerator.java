@@ -0,0 +1,31 @@
+package com.shopping.electronic.store.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version 7 UUIDs (RFC 9562): 48 bit unix millis, 12 bit counter and 62 random bits.
+ * Ids sort in creation order, so new rows are appended at the end of primary key index instead of splitting
+ * random pages. Timestamp and counter are advanced with a single CAS, ids of one generator are strictly
+ * increasing even with more than 4096 ids per millisecond or a clock going backwards.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+    private static final int COUNTER_BITS = 12;
+    private static final long VERSION = 7L << COUNTER_BITS;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    // millis << COUNTER_BITS | counter of last id
+    private final AtomicLong last = new AtomicLong();
+
+    @Override
+    public String nextId() {
+        long now = System.currentTimeMillis() << COUNTER_BITS;
+        long next = last.updateAndGet(previous -> Math.max(now, previous + 1));
+        long mostSigBits = (next >>> COUNTER_BITS) << 16 | VERSION | (next & ((1L << COUNTER_BITS) - 1));
+        long leastSigBits = VARIANT | ThreadLocalRandom.current().nextLong() & RANDOM_MASK;
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+}
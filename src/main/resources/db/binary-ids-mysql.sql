@@ -0,0 +1,36 @@
+-- One time conversion of text UUID ids (varchar) to binary(16), run before starting the new version.
+-- Existing ids keep their value: a UUID string and its 16 bytes are converted back and forth by BinaryIdType.
+-- Each column is first retyped to varbinary so its text can be rewritten in place, then shrunk to binary(16).
+-- Take a backup first, foreign key checks are off while both sides of every key are converted.
+
+SET FOREIGN_KEY_CHECKS = 0;
+
+ALTER TABLE categories MODIFY category_id VARBINARY(36) NOT NULL;
+UPDATE categories SET category_id = UNHEX(REPLACE(category_id, '-', ''));
+ALTER TABLE categories MODIFY category_id BINARY(16) NOT NULL;
+
+ALTER TABLE products MODIFY product_id VARBINARY(36) NOT NULL, MODIFY category_id VARBINARY(36);
+UPDATE products SET product_id = UNHEX(REPLACE(product_id, '-', '')), category_id = UNHEX(REPLACE(category_id, '-', ''));
+ALTER TABLE products MODIFY product_id BINARY(16) NOT NULL, MODIFY category_id BINARY(16);
+
+ALTER TABLE user_table MODIFY user_id VARBINARY(36) NOT NULL;
+UPDATE user_table SET user_id = UNHEX(REPLACE(user_id, '-', ''));
+ALTER TABLE user_table MODIFY user_id BINARY(16) NOT NULL;
+
+ALTER TABLE cart MODIFY cart_id VARBINARY(36) NOT NULL, MODIFY user_user_id VARBINARY(36);
+UPDATE cart SET cart_id = UNHEX(REPLACE(cart_id, '-', '')), user_user_id = UNHEX(REPLACE(user_user_id, '-', ''));
+ALTER TABLE cart MODIFY cart_id BINARY(16) NOT NULL, MODIFY user_user_id BINARY(16);
+
+ALTER TABLE cart_items MODIFY cart_id VARBINARY(36), MODIFY product_id VARBINARY(36);
+UPDATE cart_items SET cart_id = UNHEX(REPLACE(cart_id, '-', '')), product_id = UNHEX(REPLACE(product_id, '-', ''));
+ALTER TABLE cart_items MODIFY cart_id BINARY(16), MODIFY product_id BINARY(16);
+
+ALTER TABLE orders MODIFY order_id VARBINARY(36) NOT NULL, MODIFY user_id VARBINARY(36);
+UPDATE orders SET order_id = UNHEX(REPLACE(order_id, '-', '')), user_id = UNHEX(REPLACE(user_id, '-', ''));
+ALTER TABLE orders MODIFY order_id BINARY(16) NOT NULL, MODIFY user_id BINARY(16);
+
+ALTER TABLE order_items MODIFY order_id VARBINARY(36), MODIFY product_id VARBINARY(36);
+UPDATE order_items SET order_id = UNHEX(REPLACE(order_id, '-', '')), product_id = UNHEX(REPLACE(product_id, '-', ''));
+ALTER TABLE order_items MODIFY order_id BINARY(16), MODIFY product_id BINARY(16);
+
+SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,16 @@
+-- One time change before starting the version with versioned carts: existing rows start at version 0 and
+-- a user keeps a single cart. Surplus carts created by concurrent adds of older versions are removed
+-- together with their items, the earliest cart of every user is kept.
+
+ALTER TABLE cart ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE cart_items ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+CREATE TEMPORARY TABLE surplus_carts AS
+SELECT c.cart_id FROM cart c
+WHERE EXISTS (SELECT 1 FROM cart k WHERE k.user_user_id = c.user_user_id
+              AND (k.created_date < c.created_date OR (k.created_date = c.created_date AND k.cart_id < c.cart_id)));
+DELETE FROM cart_items WHERE cart_id IN (SELECT cart_id FROM surplus_carts);
+DELETE FROM cart WHERE cart_id IN (SELECT cart_id FROM surplus_carts);
+DROP TEMPORARY TABLE surplus_carts;
+
+ALTER TABLE cart ADD CONSTRAINT uk_cart_user UNIQUE (user_user_id);
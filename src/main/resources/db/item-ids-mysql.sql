@@ -0,0 +1,11 @@
+-- One time switch of order and cart item ids from auto increment to pooled sequences, run before starting
+-- the new version. MySQL has no sequences, Hibernate keeps the next value in a single row table instead.
+-- The pooled optimizer hands out the 50 ids up to the stored value, so it starts 50 above the current maximum.
+
+CREATE TABLE IF NOT EXISTS order_item_ids (next_val BIGINT);
+DELETE FROM order_item_ids;
+INSERT INTO order_item_ids (next_val) SELECT COALESCE(MAX(order_item_id), 0) + 50 FROM order_items;
+
+CREATE TABLE IF NOT EXISTS cart_item_ids (next_val BIGINT);
+DELETE FROM cart_item_ids;
+INSERT INTO cart_item_ids (next_val) SELECT COALESCE(MAX(cart_item_id), 0) + 50 FROM cart_items;
@@ -0,0 +1,9 @@
+-- Composite indexes behind the product query endpoint, run once before starting the new version.
+-- Equality filters lead (live, stock, category) and the range filtered column comes last, the query restricts
+-- live and stock to (false, true) when a range is given without them so every index prefix stays usable.
+-- Category pages filtered by price use the category index, which also serves the category foreign key.
+
+CREATE INDEX ix_products_category_live_stock_discounted ON products (category_id, live, stock, discounted_price);
+CREATE INDEX ix_products_live_stock_discounted ON products (live, stock, discounted_price);
+CREATE INDEX ix_products_live_stock_price ON products (live, stock, price);
+CREATE INDEX ix_products_live_stock_added ON products (live, stock, added_date);
@@ -0,0 +1,115 @@
+package com.shopping.electronic.store.benchmark;
+
+import com.shopping.electronic.store.ElectronicStoreApplication;
+import com.shopping.electronic.store.model.Category;
+import com.shopping.electronic.store.model.Product;
+import com.shopping.electronic.store.model.User;
+import com.shopping.electronic.store.repository.CategoryRepository;
+import com.shopping.electronic.store.repository.ProductRepository;
+import com.shopping.electronic.store.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the store on a random port against the embedded H2 database (MySQL mode) configured for tests
+ * and seeds catalog data for benchmarks.
+ */
+final class BenchmarkApplication {
+
+    // large enough that checkout benchmarks never run out of stock
+    static final int UNLIMITED_QUANTITY = Integer.MAX_VALUE / 2;
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(final String... properties) {
+        return start(null, properties);
+    }
+
+    /**
+     * Method to start the store with an extra post processor applied before the application's own, e.g. to slow down
+     * the database
+     *
+     * @param postProcessor may be null
+     * @param properties
+     * @return
+     */
+    static ConfigurableApplicationContext start(final BeanPostProcessor postProcessor, final String... properties) {
+        List<String> allProperties = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN",
+                "spring.jpa.properties.hibernate.generate_statistics=false"));
+        allProperties.addAll(List.of(properties));
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(ElectronicStoreApplication.class)
+                .properties(allProperties.toArray(new String[0]));
+        if (postProcessor != null) {
+            builder.initializers(context -> context.getBeanFactory().addBeanPostProcessor(postProcessor));
+        }
+        return builder.run();
+    }
+
+    static List<Product> seedProducts(final ConfigurableApplicationContext context, final int categories, final int products) {
+        return seedProducts(context, seedCategories(context, categories), 0, products);
+    }
+
+    static List<Category> seedCategories(final ConfigurableApplicationContext context, final int categories) {
+        List<Category> categoryList = new ArrayList<>();
+        for (int i = 0; i < categories; i++) {
+            categoryList.add(Category.builder()
+                    .categoryId(UUID.randomUUID().toString())
+                    .title("Category " + i)
+                    .description("Benchmark category " + i)
+                    .build());
+        }
+        return context.getBean(CategoryRepository.class).saveAll(categoryList);
+    }
+
+    /**
+     * Method to seed products numbered from first to first + products - 1, spread over given categories
+     *
+     * @param context
+     * @param categoryList
+     * @param first
+     * @param products
+     * @return
+     */
+    static List<Product> seedProducts(final ConfigurableApplicationContext context, final List<Category> categoryList,
+                                      final int first, final int products) {
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        int categories = categoryList.size();
+        List<Product> productList = new ArrayList<>();
+        for (int i = first; i < first + products; i++) {
+            productList.add(Product.builder()
+                    .productId(UUID.randomUUID().toString())
+                    .title("Product " + i)
+                    .description("Benchmark product " + i)
+                    .price(1000 + i % 500)
+                    .discountedPrice(900 + i % 500)
+                    .quantity(UNLIMITED_QUANTITY)
+                    .addedDate(new Date())
+                    .live(i % 2 == 0)
+                    .stock(true)
+                    .category(categoryList.get(i % categories))
+                    .build());
+        }
+        return productRepository.saveAll(productList);
+    }
+
+    static User seedUser(final ConfigurableApplicationContext context) {
+        String userId = UUID.randomUUID().toString();
+        return context.getBean(UserRepository.class).save(User.builder()
+                .userId(userId)
+                .name("Benchmark user")
+                .email(userId + "@store.com")
+                .password("secret")
+                .build());
+    }
+}
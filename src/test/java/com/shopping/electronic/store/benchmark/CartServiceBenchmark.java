@@ -0,0 +1,71 @@
+package com.shopping.electronic.store.benchmark;
+
+import com.shopping.electronic.store.dto.AddItemToCartRequest;
+import com.shopping.electronic.store.dto.CartDto;
+import com.shopping.electronic.store.model.Product;
+import com.shopping.electronic.store.service.CartService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Adding items to a cart which holds up to ten distinct products, with carts written on every change
+ * or held in memory and written behind.
+ * Each call runs in one transaction like a request does with open session in view.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CartServiceBenchmark {
+
+    private static final int CART_PRODUCTS = 10;
+
+    @Param({"database", "memory"})
+    private String cartStore;
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+    private TransactionTemplate transactionTemplate;
+    private List<Product> products;
+    private String userId;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("cart.store=" + cartStore);
+        products = BenchmarkApplication.seedProducts(context, 2, CART_PRODUCTS);
+        userId = BenchmarkApplication.seedUser(context).getUserId();
+        cartService = context.getBean(CartService.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CartDto addItemToCart() {
+        Product product = products.get(next++ % CART_PRODUCTS);
+        AddItemToCartRequest request = new AddItemToCartRequest(product.getProductId(), 1 + next % 3);
+        return transactionTemplate.execute(status -> cartService.addItemToCart(userId, request));
+    }
+}
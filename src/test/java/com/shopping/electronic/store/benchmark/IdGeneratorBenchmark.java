@@ -0,0 +1,82 @@
+package com.shopping.electronic.store.benchmark;
+
+import com.shopping.electronic.store.model.Category;
+import com.shopping.electronic.store.model.Product;
+import com.shopping.electronic.store.repository.ProductBatchRepository;
+import com.shopping.electronic.store.util.IdGenerator;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Primary key generation under contention and insert throughput into a growing products table, per generator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"random", "time-ordered"})
+    private String generator;
+
+    private ConfigurableApplicationContext context;
+    private IdGenerator idGenerator;
+    private ProductBatchRepository productBatchRepository;
+    private Category category;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("ids.generator=" + generator);
+        idGenerator = context.getBean(IdGenerator.class);
+        productBatchRepository = context.getBean(ProductBatchRepository.class);
+        category = BenchmarkApplication.seedProducts(context, 1, 1).get(0).getCategory();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String nextId() {
+        return idGenerator.nextId();
+    }
+
+    @Benchmark
+    public void insertProducts() {
+        List<Product> products = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            products.add(Product.builder()
+                    .productId(idGenerator.nextId())
+                    .title("Product " + i)
+                    .description("Benchmark product " + i)
+                    .addedDate(new Date())
+                    .category(category)
+                    .build());
+        }
+        productBatchRepository.insertAll(products);
+    }
+}
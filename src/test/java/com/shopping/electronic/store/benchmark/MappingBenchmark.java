@@ -0,0 +1,149 @@
+package com.shopping.electronic.store.benchmark;
+
+import com.shopping.electronic.store.dto.OrderDto;
+import com.shopping.electronic.store.dto.ProductDto;
+import com.shopping.electronic.store.mapper.CategoryMapperImpl;
+import com.shopping.electronic.store.mapper.OrderMapper;
+import com.shopping.electronic.store.mapper.OrderMapperImpl;
+import com.shopping.electronic.store.mapper.ProductMapper;
+import com.shopping.electronic.store.mapper.ProductMapperImpl;
+import com.shopping.electronic.store.model.Category;
+import com.shopping.electronic.store.model.Order;
+import com.shopping.electronic.store.model.OrderItem;
+import com.shopping.electronic.store.model.Product;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * Generated mappers against the reflective ModelMapper they replaced,
+ * for a single product, a page of products and an order with its items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int ORDER_ITEMS = 10;
+
+    private AnnotationConfigApplicationContext context;
+    private ModelMapper modelMapper;
+    private ProductMapper productMapper;
+    private OrderMapper orderMapper;
+    private Product product;
+    private List<Product> products;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(CategoryMapperImpl.class, ProductMapperImpl.class, OrderMapperImpl.class);
+        productMapper = context.getBean(ProductMapper.class);
+        orderMapper = context.getBean(OrderMapper.class);
+        modelMapper = new ModelMapper();
+
+        Category category = Category.builder()
+                .categoryId("category-1")
+                .title("Laptops")
+                .description("Portable computers")
+                .coverImage("laptop.jpg")
+                .productList(new ArrayList<>())
+                .build();
+        products = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            products.add(product(category, i));
+        }
+        product = products.get(0);
+        order = Order.builder()
+                .orderId("order-1")
+                .orderStatus("PENDING")
+                .paymentStatus("NOT-PAID")
+                .billingName("Benchmark")
+                .billingAddress("Street 1")
+                .billingPhone("9999999999")
+                .orderedDate(new Date())
+                .orderItems(new ArrayList<>())
+                .build();
+        for (int i = 0; i < ORDER_ITEMS; i++) {
+            Product orderedProduct = products.get(i);
+            order.getOrderItems().add(OrderItem.builder()
+                    .orderItemId(i)
+                    .quantity(2)
+                    .totalPrice(2 * orderedProduct.getDiscountedPrice())
+                    .product(orderedProduct)
+                    .order(order)
+                    .build());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductDto productModelMapper() {
+        return modelMapper.map(product, ProductDto.class);
+    }
+
+    @Benchmark
+    public ProductDto productGeneratedMapper() {
+        return productMapper.toDto(product);
+    }
+
+    @Benchmark
+    public List<ProductDto> productPageModelMapper() {
+        return products.stream().map(item -> modelMapper.map(item, ProductDto.class)).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<ProductDto> productPageGeneratedMapper() {
+        return products.stream().map(productMapper::toDto).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public OrderDto orderModelMapper() {
+        return modelMapper.map(order, OrderDto.class);
+    }
+
+    @Benchmark
+    public OrderDto orderGeneratedMapper() {
+        return orderMapper.toDto(order);
+    }
+
+    private static Product product(final Category category, final int index) {
+        return Product.builder()
+                .productId("product-" + index)
+                .title("Laptop " + index)
+                .description("Benchmark product " + index)
+                .price(1000 + index)
+                .discountedPrice(900 + index)
+                .quantity(10)
+                .addedDate(new Date())
+                .live(true)
+                .stock(true)
+                .productImage("laptop.jpg")
+                .category(category)
+                .build();
+    }
+}
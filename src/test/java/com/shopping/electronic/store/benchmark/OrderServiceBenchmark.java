@@ -0,0 +1,88 @@
+package com.shopping.electronic.store.benchmark;
+
+import com.shopping.electronic.store.dto.AddItemToCartRequest;
+import com.shopping.electronic.store.dto.CreateOrderRequest;
+import com.shopping.electronic.store.dto.OrderDto;
+import com.shopping.electronic.store.model.Product;
+import com.shopping.electronic.store.service.CartService;
+import com.shopping.electronic.store.service.OrderService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Checkout latency by number of cart lines, the cart is filled again before every call.
+ * Order items are inserted and cart items deleted in jdbc batches of 50, so 60 lines take two batches each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    @Param({"1", "10", "30", "60"})
+    private int cartSize;
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+    private OrderService orderService;
+    private TransactionTemplate transactionTemplate;
+    private List<Product> products;
+    private String userId;
+    private String cartId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        products = BenchmarkApplication.seedProducts(context, 5, cartSize);
+        userId = BenchmarkApplication.seedUser(context).getUserId();
+        cartService = context.getBean(CartService.class);
+        orderService = context.getBean(OrderService.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void fillCart() {
+        for (Product product : products) {
+            AddItemToCartRequest request = new AddItemToCartRequest(product.getProductId(), 1);
+            cartId = transactionTemplate.execute(status -> cartService.addItemToCart(userId, request)).getCartId();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderDto createOrder() {
+        CreateOrderRequest request = CreateOrderRequest.builder()
+                .cartId(cartId)
+                .userId(userId)
+                .orderStatus("PENDING")
+                .paymentStatus("NOT-PAID")
+                .billingName("Benchmark")
+                .billingAddress("Street 1")
+                .billingPhone("9999999999")
+                .build();
+        return transactionTemplate.execute(status -> orderService.createOrder(request));
+    }
+}
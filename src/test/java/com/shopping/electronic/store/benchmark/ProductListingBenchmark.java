@@ -0,0 +1,67 @@
+package com.shopping.electronic.store.benchmark;
+
+import com.shopping.electronic.store.model.Product;
+import com.shopping.electronic.store.service.ProductListingService;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * In memory listings following the quantity changes of one order, per catalog size and number of line items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductListingBenchmark {
+
+    @Param({"5000", "50000"})
+    private int catalogSize;
+
+    @Param({"1", "10"})
+    private int lineItems;
+
+    private ConfigurableApplicationContext context;
+    private ProductListingService productListingService;
+    // product id -> ordered quantity taken from stock
+    private final Map<String, Integer> changes = new HashMap<>();
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        List<Product> products = BenchmarkApplication.seedProducts(context, 20, catalogSize);
+        productListingService = context.getBean(ProductListingService.class);
+        productListingService.rebuild();
+        for (int i = 0; i < lineItems; i++) {
+            changes.put(products.get(i * (catalogSize / lineItems)).getProductId(), -1);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void quantityChanged() {
+        productListingService.quantityChanged(changes);
+    }
+}
@@ -0,0 +1,87 @@
+package com.shopping.electronic.store.benchmark;
+
+import com.shopping.electronic.store.dto.ProductDto;
+import com.shopping.electronic.store.dto.ProductQuery;
+import com.shopping.electronic.store.model.Category;
+import com.shopping.electronic.store.service.ProductService;
+import com.shopping.electronic.store.util.CursorPage;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Filtered product queries against a large catalog, served by the composite indexes of the products table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ProductQueryBenchmark {
+
+    private static final int CATEGORIES = 100;
+    private static final int SEED_BATCH = 10000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000000"})
+    private int products;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductQuery categoryPriceQuery;
+    private ProductQuery liveStockPriceQuery;
+    private ProductQuery priceQuery;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        List<Category> categories = BenchmarkApplication.seedCategories(context, CATEGORIES);
+        for (int first = 0; first < products; first += SEED_BATCH) {
+            BenchmarkApplication.seedProducts(context, categories, first, Math.min(SEED_BATCH, products - first));
+        }
+        productService = context.getBean(ProductService.class);
+        categoryPriceQuery = ProductQuery.builder()
+                .categoryId(categories.get(0).getCategoryId())
+                .minDiscountedPrice(1000)
+                .maxDiscountedPrice(1100)
+                .build();
+        liveStockPriceQuery = ProductQuery.builder().live(true).stock(true).minPrice(1200).maxPrice(1210).build();
+        // live and stock left open
+        priceQuery = ProductQuery.builder().minPrice(1200).maxPrice(1210).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPage<ProductDto> categoryAndDiscountedPrice() {
+        return productService.queryProducts(categoryPriceQuery, null, PAGE_SIZE, "discountedPrice", "ASC");
+    }
+
+    @Benchmark
+    public CursorPage<ProductDto> liveInStockPriceRange() {
+        return productService.queryProducts(liveStockPriceQuery, null, PAGE_SIZE, "price", "ASC");
+    }
+
+    @Benchmark
+    public CursorPage<ProductDto> priceRange() {
+        return productService.queryProducts(priceQuery, null, PAGE_SIZE, "price", "ASC");
+    }
+}
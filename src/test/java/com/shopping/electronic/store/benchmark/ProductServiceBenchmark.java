@@ -0,0 +1,59 @@
+package com.shopping.electronic.store.benchmark;
+
+import com.shopping.electronic.store.dto.ProductDto;
+import com.shopping.electronic.store.service.ProductService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Product listing, first and deep page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    private static final int PRODUCTS = 5000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "200"})
+    private int pageNumber;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seedProducts(context, 20, PRODUCTS);
+        productService = context.getBean(ProductService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductDto> getAllProduct() {
+        return productService.getAllProduct(pageNumber, PAGE_SIZE, "title", "ASC");
+    }
+}
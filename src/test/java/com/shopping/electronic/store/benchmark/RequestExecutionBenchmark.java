@@ -0,0 +1,126 @@
+package com.shopping.electronic.store.benchmark;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Mixed load over HTTP against a slow database: more clients than tomcat worker threads page through products,
+ * each holding a connection for {@link #DATABASE_LATENCY_MILLIS}, while a few clients read a cached product.
+ * With the worker pool the cached reads queue behind the database bound requests, with virtual threads they don't.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class RequestExecutionBenchmark {
+
+    private static final int PRODUCTS = 1000;
+    private static final long DATABASE_LATENCY_MILLIS = 20;
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest listingRequest;
+    private HttpRequest productRequest;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(new SlowDatabase(),
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                // enough waiting room that no request is rejected, only latency is compared
+                "virtual-threads.waiting-per-connection=64",
+                "spring.datasource.hikari.connection-timeout=60000");
+        String productId = BenchmarkApplication.seedProducts(context, 10, PRODUCTS).get(0).getProductId();
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/products";
+        client = HttpClient.newBuilder()
+                .executor(Executors.newCachedThreadPool())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        listingRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/cursor?pageSize=20")).build();
+        productRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/" + productId)).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(240)
+    public int listing() throws IOException, InterruptedException {
+        return client.send(listingRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(8)
+    public int cachedProduct() throws IOException, InterruptedException {
+        return client.send(productRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    // every connection handed out is held for the database latency first, as if its first statement was slow
+    private static final class SlowDatabase implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+            if (!(bean instanceof DataSource)) {
+                return bean;
+            }
+            return new SlowDataSource((DataSource) bean);
+        }
+    }
+
+    private static final class SlowDataSource extends DelegatingDataSource implements Closeable {
+
+        private SlowDataSource(final DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(DATABASE_LATENCY_MILLIS));
+            return connection;
+        }
+
+        @Override
+        public void close() throws IOException {
+            ((Closeable) getTargetDataSource()).close();
+        }
+    }
+}
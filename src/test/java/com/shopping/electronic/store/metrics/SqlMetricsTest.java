@@ -0,0 +1,81 @@
+package com.shopping.electronic.store.metrics;
+
+import com.shopping.electronic.store.model.Category;
+import com.shopping.electronic.store.model.Product;
+import com.shopping.electronic.store.repository.CategoryRepository;
+import com.shopping.electronic.store.repository.ProductRepository;
+
+import java.util.Date;
+import java.util.UUID;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statements and rows of a request are recorded under its controller method.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SqlMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void statementsAndRowsAreRecordedPerControllerMethod() throws Exception {
+        Product product = product();
+        // saved entities are in the second level cache, the request has to read the database
+        entityManagerFactory.getCache().evictAll();
+
+        mockMvc.perform(get("/products/" + product.getProductId())).andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.get("http.server.requests.sql.statements")
+                .tag("handler", "ProductController.getProduct")
+                .summary();
+        DistributionSummary rowsRead = meterRegistry.get("http.server.requests.sql.rows")
+                .tag("handler", "ProductController.getProduct")
+                .tag("operation", "read")
+                .summary();
+        assertTrue(statements.count() >= 1);
+        assertTrue(statements.totalAmount() >= 1, "statements: " + statements.totalAmount());
+        assertTrue(rowsRead.totalAmount() >= 1, "rows: " + rowsRead.totalAmount());
+    }
+
+    private Product product() {
+        Category category = categoryRepository.save(Category.builder()
+                .categoryId(UUID.randomUUID().toString())
+                .title("category")
+                .build());
+        return productRepository.save(Product.builder()
+                .productId(UUID.randomUUID().toString())
+                .title("product")
+                .description("description")
+                .price(100)
+                .discountedPrice(90)
+                .quantity(10)
+                .stock(true)
+                .live(true)
+                .addedDate(new Date())
+                .category(category)
+                .build());
+    }
+}
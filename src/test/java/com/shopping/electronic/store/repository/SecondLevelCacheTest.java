@@ -0,0 +1,95 @@
+package com.shopping.electronic.store.repository;
+
+import com.shopping.electronic.store.model.Category;
+
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Category reads are served from second level and query cache once loaded, and see updates right away.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SecondLevelCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void categoryIsReadWithoutStatementsOnceCached() throws Exception {
+        Category category = category();
+
+        statementsFor("/categories/" + category.getCategoryId());
+        long cached = statementsFor("/categories/" + category.getCategoryId());
+
+        assertEquals(0, cached);
+    }
+
+    @Test
+    void categoryPageIsReadWithoutStatementsOnceCached() throws Exception {
+        category();
+
+        statementsFor("/categories?pageSize=5");
+        long cached = statementsFor("/categories?pageSize=5");
+
+        assertEquals(0, cached);
+    }
+
+    @Test
+    void updatedCategoryIsReadAfterUpdate() throws Exception {
+        Category category = category();
+        statementsFor("/categories/" + category.getCategoryId());
+
+        mockMvc.perform(put("/categories/" + category.getCategoryId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"renamed category\",\"description\":\"renamed description\",\"coverImage\":\"cover.png\"}"))
+                .andExpect(status().is2xxSuccessful());
+
+        mockMvc.perform(get("/categories/" + category.getCategoryId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("renamed category"));
+    }
+
+    private long statementsFor(final String url) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Category category() {
+        return categoryRepository.save(Category.builder()
+                .categoryId(UUID.randomUUID().toString())
+                .title("category")
+                .description("description")
+                .build());
+    }
+}
@@ -0,0 +1,239 @@
+package com.shopping.electronic.store.repository;
+
+import com.shopping.electronic.store.model.Cart;
+import com.shopping.electronic.store.model.CartItem;
+import com.shopping.electronic.store.model.Category;
+import com.shopping.electronic.store.model.Order;
+import com.shopping.electronic.store.model.OrderItem;
+import com.shopping.electronic.store.model.Product;
+import com.shopping.electronic.store.model.User;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Number of SQL statements issued per endpoint must not grow with number of cart or order items.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class StatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void cartIsLoadedWithConstantNumberOfStatements() throws Exception {
+        User smallCartUser = userWithCart(2);
+        User largeCartUser = userWithCart(12);
+
+        long small = statementsFor("/carts/" + smallCartUser.getUserId());
+        long large = statementsFor("/carts/" + largeCartUser.getUserId());
+
+        assertEquals(small, large);
+        assertTrue(large <= 2, "statements: " + large);
+    }
+
+    @Test
+    void ordersOfUserAreLoadedWithConstantNumberOfStatements() throws Exception {
+        User fewItemsUser = userWithOrders(1, 2);
+        User manyItemsUser = userWithOrders(4, 8);
+
+        long few = statementsFor("/orders/" + fewItemsUser.getUserId());
+        long many = statementsFor("/orders/" + manyItemsUser.getUserId());
+
+        assertEquals(few, many);
+        assertTrue(many <= 2, "statements: " + many);
+    }
+
+    @Test
+    void orderPagesAreLoadedWithConstantNumberOfStatements() throws Exception {
+        userWithOrders(6, 5);
+
+        long page = statementsFor("/orders?pageSize=2");
+        long largerPage = statementsFor("/orders?pageSize=6");
+        long cursorPage = statementsFor("/orders/cursor?pageSize=6");
+
+        assertEquals(page, largerPage);
+        // ids page, count and orders with items
+        assertTrue(largerPage <= 3, "statements: " + largerPage);
+        assertTrue(cursorPage <= 2, "statements: " + cursorPage);
+    }
+
+    @Test
+    void productPagesAreLoadedWithConstantNumberOfStatements() throws Exception {
+        products(10);
+
+        long page = statementsFor("/products?pageSize=2");
+        long largerPage = statementsFor("/products?pageSize=10");
+        long cursorPage = statementsFor("/products/cursor?pageSize=10");
+
+        assertEquals(page, largerPage);
+        // products page and count
+        assertTrue(largerPage <= 2, "statements: " + largerPage);
+        assertTrue(cursorPage <= 1, "statements: " + cursorPage);
+    }
+
+    @Test
+    void batchOfProductsIsLoadedInOneStatement() throws Exception {
+        List<Product> fewProducts = products(2);
+        List<Product> manyProducts = products(10);
+
+        long few = statementsFor("/products/batch?ids=" + ids(fewProducts));
+        long many = statementsFor("/products/batch?ids=" + ids(manyProducts) + "," + UUID.randomUUID());
+
+        assertEquals(few, many);
+        assertTrue(many <= 1, "statements: " + many);
+    }
+
+    @Test
+    void orderItemsAreInsertedInOneBatch() {
+        User user = user();
+        List<Product> fewProducts = products(2);
+        List<Product> manyProducts = products(30);
+
+        long few = statementsToSaveOrder(user, fewProducts);
+        long many = statementsToSaveOrder(user, manyProducts);
+
+        // order lookup by merge, order insert, item batch and sequence calls, one more when a pooled block runs out
+        assertTrue(few <= 5, "statements: " + few);
+        assertTrue(many <= few + 1, "statements: " + many + " for 30 items, " + few + " for 2 items");
+    }
+
+    private long statementsToSaveOrder(final User user, final List<Product> products) {
+        Order order = order(user, products);
+        statistics.clear();
+        orderRepository.save(order);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long statementsFor(final String url) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().is2xxSuccessful());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static String ids(final List<Product> products) {
+        return products.stream().map(Product::getProductId).collect(Collectors.joining(","));
+    }
+
+    private User userWithCart(final int items) {
+        User user = user();
+        Cart cart = Cart.builder()
+                .cartId(UUID.randomUUID().toString())
+                .createdDate(new Date())
+                .user(user)
+                .items(new ArrayList<>())
+                .build();
+        for (Product product : products(items)) {
+            cart.getItems().add(CartItem.builder()
+                    .product(product)
+                    .quantity(1)
+                    .totalPrice(product.getDiscountedPrice())
+                    .cart(cart)
+                    .build());
+        }
+        cartRepository.save(cart);
+        return user;
+    }
+
+    private User userWithOrders(final int orders, final int itemsPerOrder) {
+        User user = user();
+        for (int i = 0; i < orders; i++) {
+            orderRepository.save(order(user, products(itemsPerOrder)));
+        }
+        return user;
+    }
+
+    private static Order order(final User user, final List<Product> products) {
+        Order order = Order.builder()
+                .orderId(UUID.randomUUID().toString())
+                .orderStatus("PENDING")
+                .paymentStatus("NOT-PAID")
+                .orderedDate(new Date())
+                .user(user)
+                .orderItems(new ArrayList<>())
+                .build();
+        for (Product product : products) {
+            order.getOrderItems().add(OrderItem.builder()
+                    .product(product)
+                    .quantity(1)
+                    .totalPrice(product.getDiscountedPrice())
+                    .order(order)
+                    .build());
+        }
+        return order;
+    }
+
+    private User user() {
+        String userId = UUID.randomUUID().toString();
+        return userRepository.save(User.builder()
+                .userId(userId)
+                .name("user " + userId)
+                .email(userId + "@store.com")
+                .password("secret")
+                .build());
+    }
+
+    // every product in its own category, the worst case for per category selects
+    private List<Product> products(final int count) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Category category = categoryRepository.save(Category.builder()
+                    .categoryId(UUID.randomUUID().toString())
+                    .title("category " + i)
+                    .build());
+            products.add(productRepository.save(Product.builder()
+                    .productId(UUID.randomUUID().toString())
+                    .title("product " + i)
+                    .description("description")
+                    .price(100)
+                    .discountedPrice(90)
+                    .quantity(10)
+                    .stock(true)
+                    .live(true)
+                    .addedDate(new Date())
+                    .category(category)
+                    .build()));
+        }
+        return products;
+    }
+}
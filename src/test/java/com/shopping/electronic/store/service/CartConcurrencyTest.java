@@ -0,0 +1,149 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.dto.AddItemToCartRequest;
+import com.shopping.electronic.store.dto.CartDto;
+import com.shopping.electronic.store.dto.CartItemDto;
+import com.shopping.electronic.store.model.Category;
+import com.shopping.electronic.store.model.Product;
+import com.shopping.electronic.store.model.User;
+import com.shopping.electronic.store.repository.CategoryRepository;
+import com.shopping.electronic.store.repository.ProductRepository;
+import com.shopping.electronic.store.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads adding to the cart of one user end up with a single cart holding every product exactly once.
+ */
+@SpringBootTest
+class CartConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int PRODUCTS = 10;
+
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private ExecutorService executor;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        Category category = categoryRepository.save(Category.builder()
+                .categoryId(UUID.randomUUID().toString())
+                .title("Cart category")
+                .build());
+        products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(productRepository.save(Product.builder()
+                    .productId(UUID.randomUUID().toString())
+                    .title("Cart product " + i)
+                    .description("description")
+                    .price(100)
+                    .discountedPrice(90)
+                    .quantity(10)
+                    .stock(true)
+                    .live(true)
+                    .addedDate(new Date())
+                    .category(category)
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentAddsToOneCartAreNotLost() throws Exception {
+        String userId = user().getUserId();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> adds = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int quantity = thread + 1;
+            adds.add(executor.submit(() -> {
+                start.await();
+                for (Product product : products) {
+                    cartService.addItemToCart(userId, new AddItemToCartRequest(product.getProductId(), quantity));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> add : adds) {
+            add.get(60, TimeUnit.SECONDS);
+        }
+
+        CartDto cart = cartService.getCartByUser(userId);
+        Set<String> productIds = cart.getItems().stream()
+                .map(item -> item.getProduct().getProductId())
+                .collect(Collectors.toSet());
+        assertEquals(PRODUCTS, cart.getItems().size());
+        assertEquals(PRODUCTS, productIds.size());
+        for (CartItemDto item : cart.getItems()) {
+            assertTrue(item.getQuantity() >= 1 && item.getQuantity() <= THREADS, "quantity: " + item.getQuantity());
+            assertEquals(item.getQuantity() * 90, item.getTotalPrice());
+        }
+    }
+
+    @Test
+    void cartsOfDifferentUsersAreChangedInParallel() throws Exception {
+        List<String> userIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            userIds.add(user().getUserId());
+        }
+        List<Future<?>> adds = new ArrayList<>();
+        for (String userId : userIds) {
+            adds.add(executor.submit(() -> {
+                for (Product product : products) {
+                    cartService.addItemToCart(userId, new AddItemToCartRequest(product.getProductId(), 1));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> add : adds) {
+            add.get(60, TimeUnit.SECONDS);
+        }
+
+        for (String userId : userIds) {
+            assertEquals(PRODUCTS, cartService.getCartByUser(userId).getItems().size());
+        }
+    }
+
+    private User user() {
+        String userId = UUID.randomUUID().toString();
+        return userRepository.save(User.builder()
+                .userId(userId)
+                .name("user " + userId)
+                .email(userId + "@store.com")
+                .password("secret")
+                .build());
+    }
+}
@@ -0,0 +1,130 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.dto.AddItemToCartRequest;
+import com.shopping.electronic.store.dto.CreateOrderRequest;
+import com.shopping.electronic.store.exception.BadApiRequestException;
+import com.shopping.electronic.store.model.Category;
+import com.shopping.electronic.store.model.Product;
+import com.shopping.electronic.store.model.User;
+import com.shopping.electronic.store.repository.CategoryRepository;
+import com.shopping.electronic.store.repository.ProductRepository;
+import com.shopping.electronic.store.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Many concurrent checkouts of one product sell exactly the quantity in stock and never more.
+ */
+@SpringBootTest
+class CheckoutConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int STOCK = 5;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void hotProductIsNotOversold() throws Exception {
+        Product product = product();
+        List<CreateOrderRequest> checkouts = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            String userId = user().getUserId();
+            String cartId = cartService.addItemToCart(userId, new AddItemToCartRequest(product.getProductId(), 1)).getCartId();
+            checkouts.add(CreateOrderRequest.builder()
+                    .cartId(cartId)
+                    .userId(userId)
+                    .orderStatus("PENDING")
+                    .paymentStatus("NOT-PAID")
+                    .billingName("Buyer")
+                    .billingAddress("Street 1")
+                    .billingPhone("5550100")
+                    .build());
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> orders = new ArrayList<>();
+        for (CreateOrderRequest checkout : checkouts) {
+            orders.add(executor.submit(() -> {
+                start.await();
+                return orderService.createOrder(checkout);
+            }));
+        }
+        start.countDown();
+        int placed = 0;
+        for (Future<?> order : orders) {
+            try {
+                order.get(60, TimeUnit.SECONDS);
+                placed++;
+            } catch (ExecutionException ex) {
+                assertEquals(BadApiRequestException.class, ex.getCause().getClass(), String.valueOf(ex.getCause()));
+            }
+        }
+
+        Product sold = productRepository.findById(product.getProductId()).orElseThrow();
+        assertEquals(STOCK, placed);
+        assertEquals(0, sold.getQuantity());
+        assertFalse(sold.isStock());
+    }
+
+    private Product product() {
+        Category category = categoryRepository.save(Category.builder()
+                .categoryId(UUID.randomUUID().toString())
+                .title("Checkout category")
+                .build());
+        return productRepository.save(Product.builder()
+                .productId(UUID.randomUUID().toString())
+                .title("Hot product")
+                .description("description")
+                .price(100)
+                .discountedPrice(90)
+                .quantity(STOCK)
+                .stock(true)
+                .live(true)
+                .addedDate(new Date())
+                .category(category)
+                .build());
+    }
+
+    private User user() {
+        String userId = UUID.randomUUID().toString();
+        return userRepository.save(User.builder()
+                .userId(userId)
+                .name("user " + userId)
+                .email(userId + "@store.com")
+                .password("secret")
+                .build());
+    }
+}
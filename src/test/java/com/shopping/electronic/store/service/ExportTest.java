@@ -0,0 +1,103 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.model.Category;
+import com.shopping.electronic.store.model.Product;
+import com.shopping.electronic.store.repository.CategoryRepository;
+import com.shopping.electronic.store.repository.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exports write every row exactly once across chunks, in id order.
+ */
+@SpringBootTest(properties = "export.chunk-size=3")
+@AutoConfigureMockMvc
+class ExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private String titlePrefix;
+
+    @BeforeEach
+    void setUp() {
+        titlePrefix = "Export " + UUID.randomUUID() + " ";
+        Category category = categoryRepository.save(Category.builder()
+                .categoryId(UUID.randomUUID().toString())
+                .title("Export category")
+                .description("Export category")
+                .build());
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            products.add(Product.builder()
+                    .productId(UUID.randomUUID().toString())
+                    .title(titlePrefix + i)
+                    .description(i == 0 ? "with, comma and \"quotes\"" : "plain")
+                    .price(100 + i)
+                    .addedDate(new Date())
+                    .category(category)
+                    .build());
+        }
+        productRepository.saveAll(products);
+    }
+
+    @Test
+    void productsAreExportedAsNdjson() throws Exception {
+        String body = mockMvc.perform(get("/products/export"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"products.ndjson\""))
+                .andReturn().getResponse().getContentAsString();
+
+        int exported = 0;
+        String previousId = "";
+        for (String line : body.split("\n")) {
+            assertTrue(line.startsWith("{") && line.endsWith("}"), "not one object per line: " + line);
+            JsonNode product = objectMapper.readTree(line);
+            String productId = product.get("productId").asText();
+            assertTrue(productId.compareTo(previousId) > 0, "not in id order: " + productId);
+            previousId = productId;
+            if (product.get("title").asText().startsWith(titlePrefix)) {
+                assertEquals("Export category", product.get("category").get("title").asText());
+                exported++;
+            }
+        }
+        assertEquals(8, exported);
+    }
+
+    @Test
+    void productsAreExportedAsCsv() throws Exception {
+        String body = mockMvc.perform(get("/products/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] records = body.split("\r\n");
+        assertTrue(records[0].startsWith("productId,title,description,price"));
+        assertEquals(8, Arrays.stream(records).filter(record -> record.contains(titlePrefix)).count());
+        assertTrue(body.contains("\"with, comma and \"\"quotes\"\"\""));
+    }
+}
@@ -0,0 +1,161 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.util.ImageVariant;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Images are served with variants generated in background, or their original while a variant is missing,
+ * and answer conditional and range requests.
+ */
+@SpringBootTest
+class FileServiceTest {
+
+    private static final String NAME = "image.png";
+
+    @Autowired
+    private FileService fileService;
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void variantsAreResizedFromLargeOriginal() throws Exception {
+        image(1200, 600);
+
+        generateVariants();
+
+        for (ImageVariant variant : ImageVariant.values()) {
+            Path variantFolder = folder.resolve(variant.folderName());
+            assertEquals(variantFolder.toString(), imageVariantService.variantPath(folder.toString(), NAME, variant));
+            BufferedImage resized = ImageIO.read(variantFolder.resolve(NAME).toFile());
+            assertEquals(variant.getMaxSize(), resized.getWidth());
+            assertEquals(variant.getMaxSize() / 2, resized.getHeight());
+        }
+        MockHttpServletResponse response = serve(ImageVariant.THUMBNAIL);
+        assertEquals(200, response.getStatus());
+        assertEquals("max-age=86400, public", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals(Files.size(folder.resolve("thumbnail").resolve(NAME)), response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void smallOriginalStandsInForLargerVariants() throws Exception {
+        image(300, 200);
+
+        generateVariants();
+
+        assertEquals(folder.resolve("thumbnail").toString(),
+                imageVariantService.variantPath(folder.toString(), NAME, ImageVariant.THUMBNAIL));
+        assertEquals(folder.toString(), imageVariantService.variantPath(folder.toString(), NAME, ImageVariant.LISTING));
+        MockHttpServletResponse response = serve(ImageVariant.DETAIL);
+        assertEquals(200, response.getStatus());
+        assertEquals("max-age=86400, public", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals(Files.size(folder.resolve(NAME)), response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void originalIsRevalidatedWhileVariantIsGenerated() throws Exception {
+        image(1200, 600);
+
+        MockHttpServletResponse response = serve(ImageVariant.DETAIL);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("max-age=0, public", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals(Files.size(folder.resolve(NAME)), response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void currentCopyIsNotSentAgain() throws Exception {
+        image(300, 200);
+        String etag = serve(null, new MockHttpServletRequest("GET", "/image")).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/image");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = serve(null, request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void rangeIsServedPartially() throws Exception {
+        image(300, 200);
+        byte[] original = Files.readAllBytes(folder.resolve(NAME));
+
+        MockHttpServletResponse response = serve(null, range("bytes=10-19"));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-19/" + original.length, response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(original, 10, 20), response.getContentAsByteArray());
+    }
+
+    @Test
+    void rangeOutsideOfFileIsNotSatisfiable() throws Exception {
+        image(300, 200);
+        long length = Files.size(folder.resolve(NAME));
+
+        MockHttpServletResponse response = serve(null, range("bytes=" + length + "-"));
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */" + length, response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void malformedRangeIsIgnored() throws Exception {
+        image(300, 200);
+
+        MockHttpServletResponse response = serve(null, range("bytes=20-10"));
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(Files.readAllBytes(folder.resolve(NAME)), response.getContentAsByteArray());
+    }
+
+    private void image(final int width, final int height) throws IOException {
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", folder.resolve(NAME).toFile());
+    }
+
+    // variants are written in background, the detail variant last
+    private void generateVariants() throws InterruptedException {
+        imageVariantService.generateVariants(folder.toString(), NAME);
+        for (int wait = 0; wait < 100 && imageVariantService.variantPath(folder.toString(), NAME, ImageVariant.DETAIL) == null; wait++) {
+            Thread.sleep(100);
+        }
+        assertNotNull(imageVariantService.variantPath(folder.toString(), NAME, ImageVariant.DETAIL));
+    }
+
+    private MockHttpServletResponse serve(final ImageVariant variant) throws IOException {
+        return serve(variant.folderName(), new MockHttpServletRequest("GET", "/image"));
+    }
+
+    private MockHttpServletResponse serve(final String size, final MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        fileService.serveImage(folder.toString(), NAME, size, request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest range(final String range) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/image");
+        request.addHeader(HttpHeaders.RANGE, range);
+        return request;
+    }
+}
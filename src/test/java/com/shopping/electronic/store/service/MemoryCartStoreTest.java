@@ -0,0 +1,150 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.dto.AddItemToCartRequest;
+import com.shopping.electronic.store.dto.CartDto;
+import com.shopping.electronic.store.dto.CreateOrderRequest;
+import com.shopping.electronic.store.dto.OrderDto;
+import com.shopping.electronic.store.model.Cart;
+import com.shopping.electronic.store.model.Category;
+import com.shopping.electronic.store.model.Product;
+import com.shopping.electronic.store.model.User;
+import com.shopping.electronic.store.repository.CartRepository;
+import com.shopping.electronic.store.repository.CategoryRepository;
+import com.shopping.electronic.store.repository.ProductRepository;
+import com.shopping.electronic.store.repository.UserRepository;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Quantity changes are held in memory until flushed, new products and orders see the cart as held in memory.
+ */
+@SpringBootTest(properties = {"cart.store=memory", "cart.memory.flush-interval-ms=3600000"})
+class MemoryCartStoreTest {
+
+    @Autowired
+    private MemoryCartServiceImp cartService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        String userId = UUID.randomUUID().toString();
+        user = userRepository.save(User.builder()
+                .userId(userId)
+                .name("user " + userId)
+                .email(userId + "@store.com")
+                .password("secret")
+                .build());
+        Category category = categoryRepository.save(Category.builder()
+                .categoryId(UUID.randomUUID().toString())
+                .title("Memory cart category")
+                .build());
+        product = productRepository.save(Product.builder()
+                .productId(UUID.randomUUID().toString())
+                .title("Memory cart product")
+                .description("description")
+                .price(100)
+                .discountedPrice(90)
+                .quantity(10)
+                .stock(true)
+                .live(true)
+                .addedDate(new Date())
+                .category(category)
+                .build());
+    }
+
+    @Test
+    void quantityChangesAreWrittenBehind() {
+        CartDto added = cartService.addItemToCart(user.getUserId(), new AddItemToCartRequest(product.getProductId(), 1));
+        assertTrue(added.getItems().get(0).getCartItemId() > 0);
+        assertEquals(1, savedQuantity());
+
+        CartDto changed = cartService.addItemToCart(user.getUserId(), new AddItemToCartRequest(product.getProductId(), 4));
+        assertEquals(4, changed.getItems().get(0).getQuantity());
+        assertEquals(4, cartService.getCartByUser(user.getUserId()).getItems().get(0).getQuantity());
+        assertEquals(1, savedQuantity());
+
+        cartService.flushChangedCarts();
+        assertEquals(4, savedQuantity());
+        assertEquals(360, cartRepository.findByUser(user).getItems().get(0).getTotalPrice());
+    }
+
+    @Test
+    void orderIsCreatedFromCartHeldInMemory() {
+        String cartId = cartService.addItemToCart(user.getUserId(), new AddItemToCartRequest(product.getProductId(), 1)).getCartId();
+        cartService.addItemToCart(user.getUserId(), new AddItemToCartRequest(product.getProductId(), 3));
+
+        OrderDto order = orderService.createOrder(CreateOrderRequest.builder()
+                .cartId(cartId)
+                .userId(user.getUserId())
+                .orderStatus("PENDING")
+                .paymentStatus("NOT-PAID")
+                .billingAddress("address")
+                .billingPhone("0123456789")
+                .billingName("name")
+                .build());
+
+        assertEquals(3, order.getOrderItems().get(0).getQuantity());
+        assertEquals(270, order.getOrderAmount());
+        assertTrue(cartService.getCartByUser(user.getUserId()).getItems().isEmpty());
+        assertTrue(cartRepository.findByUser(user).getItems().isEmpty());
+    }
+
+    @Test
+    void changeAcceptedBeforeCommitOfFlushIsKept() throws Exception {
+        cartService.addItemToCart(user.getUserId(), new AddItemToCartRequest(product.getProductId(), 1));
+        cartService.addItemToCart(user.getUserId(), new AddItemToCartRequest(product.getProductId(), 3));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                cartService.flushCart(user.getUserId());
+                // another request changes the cart while the flushing transaction is still open
+                try {
+                    executor.submit(() -> cartService.addItemToCart(user.getUserId(),
+                            new AddItemToCartRequest(product.getProductId(), 5))).get(60, TimeUnit.SECONDS);
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(5, cartService.getCartByUser(user.getUserId()).getItems().get(0).getQuantity());
+        assertEquals(3, savedQuantity());
+        cartService.flushChangedCarts();
+        assertEquals(5, savedQuantity());
+    }
+
+    private int savedQuantity() {
+        Cart cart = cartRepository.findByUser(user);
+        return cart.getItems().get(0).getQuantity();
+    }
+}
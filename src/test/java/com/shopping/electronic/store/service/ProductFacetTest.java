@@ -0,0 +1,107 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.dto.CategoryDto;
+import com.shopping.electronic.store.dto.ProductDto;
+import com.shopping.electronic.store.dto.ProductFacetsDto;
+
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Facet counts follow products created, changed and deleted through the product service.
+ */
+@SpringBootTest
+class ProductFacetTest {
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private ProductFacetService productFacetService;
+    @Autowired
+    private InventoryService inventoryService;
+
+    private String categoryId;
+
+    @BeforeEach
+    void setUp() {
+        categoryId = categoryService.createCategory(CategoryDto.builder()
+                .title("Facet category " + UUID.randomUUID())
+                .description("Facet category")
+                .build()).getCategoryId();
+    }
+
+    @Test
+    void countsFollowProductChanges() {
+        ProductDto cheap = productService.createProductWithCategory(categoryId, product(500, true));
+        productService.createProductWithCategory(categoryId, product(2000, true));
+        ProductDto soldOut = productService.createProductWithCategory(categoryId, product(2500, false));
+
+        ProductFacetsDto facets = productFacetService.getFacets(categoryId, null, null, true);
+        assertEquals(2, facets.getCount());
+        assertEquals(Map.of("0-999", 1, "1000-4999", 1), facets.getPriceBuckets());
+        assertEquals(Map.of("true", 2, "false", 1), facets.getStock());
+        assertEquals(2, (int) productFacetService.getFacets(null, null, null, true).getCategories().get(categoryId));
+
+        cheap.setDiscountedPrice(1500);
+        productService.updateProduct(cheap.getProductId(), cheap);
+        productService.deleteProduct(soldOut.getProductId());
+
+        facets = productFacetService.getFacets(categoryId, "1000-4999", null, null);
+        assertEquals(2, facets.getCount());
+        assertEquals(Map.of("1000-4999", 2), facets.getPriceBuckets());
+        assertEquals(Map.of("true", 2), facets.getStock());
+    }
+
+    @Test
+    void deletedCategoryIsNotCounted() {
+        productService.createProductWithCategory(categoryId, product(500, true));
+        productService.createProductWithCategory(categoryId, product(2000, true));
+
+        categoryService.deleteCategory(categoryId);
+
+        assertEquals(0, productFacetService.getFacets(categoryId, null, null, null).getCount());
+        assertFalse(productFacetService.getFacets(null, null, null, null).getCategories().containsKey(categoryId));
+    }
+
+    @Test
+    void stockFollowsReservedQuantity() {
+        ProductDto product = productService.createProductWithCategory(categoryId, product(500, true));
+
+        inventoryService.reserveStock(Map.of(product.getProductId(), 10));
+        assertEquals(Map.of("false", 1), productFacetService.getFacets(categoryId, null, null, null).getStock());
+
+        inventoryService.releaseStock(Map.of(product.getProductId(), 1));
+        assertEquals(Map.of("true", 1), productFacetService.getFacets(categoryId, null, null, null).getStock());
+    }
+
+    @Test
+    void rebuildKeepsCounts() {
+        productService.createProductWithCategory(categoryId, product(500, true));
+
+        productFacetService.rebuild();
+
+        assertEquals(1, productFacetService.getFacets(categoryId, null, null, null).getCount());
+    }
+
+    private ProductDto product(final int discountedPrice, final boolean stock) {
+        return ProductDto.builder()
+                .title("Facet product")
+                .description("Facet product")
+                .price(discountedPrice)
+                .discountedPrice(discountedPrice)
+                .quantity(stock ? 10 : 0)
+                .live(true)
+                .stock(stock)
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.dto.CategoryDto;
+import com.shopping.electronic.store.dto.ProductDto;
+import com.shopping.electronic.store.exception.BadApiRequestException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Sparse listings return the id and requested fields only, from the database and from the in-memory listings.
+ */
+@SpringBootTest
+class ProductFieldsTest {
+
+    private static final List<String> CARD_FIELDS = List.of("title", "discountedPrice", "productImage");
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CategoryService categoryService;
+
+    private String categoryId;
+    private ProductDto product;
+
+    @BeforeEach
+    void setUp() {
+        categoryId = categoryService.createCategory(CategoryDto.builder()
+                .title("Fields category " + UUID.randomUUID())
+                .description("Fields category")
+                .build()).getCategoryId();
+        product = productService.createProductWithCategory(categoryId, ProductDto.builder()
+                .title("Fields product")
+                .description("A long description nobody asked for")
+                .price(200)
+                .discountedPrice(150)
+                .quantity(5)
+                .live(true)
+                .stock(true)
+                .productImage("card.png")
+                .build());
+    }
+
+    @Test
+    void onlyRequestedFieldsAreReturned() {
+        List<Map<String, Object>> products = productService.getAllProductOfCategory(categoryId, CARD_FIELDS, 0, 10, "title", "ASC");
+
+        assertEquals(1, products.size());
+        Map<String, Object> card = products.get(0);
+        assertEquals(List.of("productId", "title", "discountedPrice", "productImage"), new ArrayList<>(card.keySet()));
+        assertEquals(product.getProductId(), card.get("productId"));
+        assertEquals(150, card.get("discountedPrice"));
+        assertEquals("card.png", card.get("productImage"));
+    }
+
+    @Test
+    void listedProductsReturnRequestedFields() {
+        List<Map<String, Object>> products = productService.getAllLiveProduct(List.of("title", "title"), 0, 100000, "price", "ASC");
+
+        Map<String, Object> card = products.stream()
+                .filter(values -> product.getProductId().equals(values.get("productId")))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(Map.of("productId", product.getProductId(), "title", "Fields product"), card);
+    }
+
+    @Test
+    void unknownAndNestedFieldsAreRejected() {
+        assertThrows(BadApiRequestException.class, () -> productService.getAllProduct(List.of("color"), 0, 10, "title", "ASC"));
+        assertThrows(BadApiRequestException.class, () -> productService.getAllProduct(List.of("category"), 0, 10, "title", "ASC"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.model.Category;
+import com.shopping.electronic.store.repository.CategoryRepository;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bulk import inserts valid rows in batches and reports invalid ones by line without aborting.
+ */
+@SpringBootTest(properties = "catalog.import.batch-size=2")
+@AutoConfigureMockMvc
+class ProductImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(Category.builder()
+                .categoryId(UUID.randomUUID().toString())
+                .title("Import category")
+                .description("Import category")
+                .build());
+    }
+
+    @Test
+    void ndjsonRowsAreImportedAndInvalidRowsReported() throws Exception {
+        String categoryJson = "\"category\":{\"categoryId\":\"" + category.getCategoryId() + "\"}";
+        String body = "{\"title\":\"Ndjson phone\",\"description\":\"a\",\"price\":100," + categoryJson + "}\n"
+                + "{\"title\":\"Ndjson tablet\",\"description\":\"b\",\"price\":200}\n"
+                + "\n"
+                + "{\"description\":\"no title\"}\n"
+                + "{\"title\":\"Lost\",\"description\":\"c\",\"category\":{\"categoryId\":\"missing\"}}\n"
+                + "{\"title\":\n"
+                + "{\"title\":\"Ndjson watch\",\"description\":\"d\"," + categoryJson + "}\n";
+
+        mockMvc.perform(post("/products/import").contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.errors[0].line").value(4))
+                .andExpect(jsonPath("$.errors[1].line").value(5))
+                .andExpect(jsonPath("$.errors[2].line").value(6));
+
+        mockMvc.perform(get("/categories/" + category.getCategoryId() + "/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void csvRowsAreImportedAndInvalidRowsReported() throws Exception {
+        String body = "title,description,price,live,categoryId\r\n"
+                + "Csv phone,\"Phone, with \"\"quotes\"\"\",100,true," + category.getCategoryId() + "\r\n"
+                + "Csv tablet,\"two\nlines\",200,false,\r\n"
+                + "Csv watch,cheap,ten,false,\r\n"
+                + "Csv short,row\r\n";
+
+        mockMvc.perform(post("/products/import").contentType("text/csv").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(5))
+                .andExpect(jsonPath("$.errors[1].line").value(6));
+
+        mockMvc.perform(get("/products/search/Csv"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+}
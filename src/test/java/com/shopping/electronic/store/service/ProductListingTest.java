@@ -0,0 +1,162 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.dto.CategoryDto;
+import com.shopping.electronic.store.dto.ProductDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Live and in stock pages follow product changes and are served without statements.
+ */
+@SpringBootTest
+class ProductListingTest {
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String titlePrefix;
+
+    @BeforeEach
+    void setUp() {
+        titlePrefix = "Listing " + UUID.randomUUID() + " ";
+    }
+
+    @Test
+    void listingsFollowProductChanges() {
+        ProductDto cheap = productService.createProduct(product("cheap", 100, true, true));
+        ProductDto expensive = productService.createProduct(product("expensive", 900, true, false));
+
+        assertEquals(List.of("cheap", "expensive"), livePage("price", "ASC"));
+        assertEquals(List.of("expensive", "cheap"), livePage("price", "DESC"));
+        assertEquals(List.of("cheap"), stockPage());
+
+        expensive.setPrice(50);
+        expensive.setStock(true);
+        productService.updateProduct(expensive.getProductId(), expensive);
+        assertEquals(List.of("expensive", "cheap"), livePage("price", "ASC"));
+        assertEquals(List.of("expensive", "cheap"), stockPage());
+
+        cheap.setLive(false);
+        productService.updateProduct(cheap.getProductId(), cheap);
+        productService.deleteProduct(expensive.getProductId());
+        assertEquals(List.of(), livePage("price", "ASC"));
+        assertEquals(List.of("cheap"), stockPage());
+    }
+
+    @Test
+    void stockUpdatesAreAppliedWithoutReadingProducts() {
+        ProductDto product = productService.createProduct(product("reserved", 100, true, true));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        inventoryService.reserveStock(Map.of(product.getProductId(), 10));
+
+        // the conditional update only
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(List.of(), stockPage());
+        assertEquals(0, listed(product).getQuantity());
+
+        inventoryService.releaseStock(Map.of(product.getProductId(), 3));
+        assertEquals(List.of("reserved"), stockPage());
+        assertEquals(3, listed(product).getQuantity());
+    }
+
+    @Test
+    void imageChangeLeavesCachedProductAlone() {
+        ProductDto product = productService.createProduct(product("pictured", 100, true, true));
+        ProductDto cached = productService.getProduct(product.getProductId());
+
+        productService.updateProductImage(product.getProductId(), "new.png");
+
+        assertNull(cached.getProductImage());
+        assertEquals("new.png", productService.getProduct(product.getProductId()).getProductImage());
+        assertEquals("new.png", listed(product).getProductImage());
+    }
+
+    @Test
+    void categoryChangeIsListed() {
+        String categoryId = categoryService.createCategory(CategoryDto.builder()
+                .title("Listing category")
+                .description("Listing category")
+                .build()).getCategoryId();
+        ProductDto product = productService.createProductWithCategory(categoryId, product("categorized", 100, true, true));
+
+        categoryService.updateCategory(categoryId, CategoryDto.builder()
+                .title("Renamed category")
+                .description("Listing category")
+                .build());
+
+        assertEquals("Renamed category", listed(product).getCategory().getTitle());
+    }
+
+    @Test
+    void pagesAreServedWithoutStatements() {
+        productService.createProduct(product("served", 100, true, true));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        productService.getAllLiveProduct(0, 20, "title", "ASC");
+        productService.getAllStockProduct(1, 20, "addedDate", "DESC");
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    private ProductDto product(final String name, final int price, final boolean live, final boolean stock) {
+        return ProductDto.builder()
+                .title(titlePrefix + name)
+                .description("description")
+                .price(price)
+                .discountedPrice(price)
+                .quantity(stock ? 10 : 0)
+                .live(live)
+                .stock(stock)
+                .build();
+    }
+
+    // names of this test's products on a page holding every listed product
+    private List<String> livePage(final String sortBy, final String sortDir) {
+        return names(productService.getAllLiveProduct(0, 100000, sortBy, sortDir));
+    }
+
+    private ProductDto listed(final ProductDto product) {
+        return productService.getAllLiveProduct(0, 100000, "price", "ASC").stream()
+                .filter(listed -> listed.getProductId().equals(product.getProductId()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private List<String> stockPage() {
+        return names(productService.getAllStockProduct(0, 100000, "price", "ASC"));
+    }
+
+    private List<String> names(final List<ProductDto> products) {
+        return products.stream()
+                .map(ProductDto::getTitle)
+                .filter(title -> title.startsWith(titlePrefix))
+                .map(title -> title.substring(titlePrefix.length()))
+                .collect(Collectors.toList());
+    }
+}
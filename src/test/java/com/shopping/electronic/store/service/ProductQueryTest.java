@@ -0,0 +1,118 @@
+package com.shopping.electronic.store.service;
+
+import com.shopping.electronic.store.dto.ProductDto;
+import com.shopping.electronic.store.dto.ProductQuery;
+import com.shopping.electronic.store.exception.BadApiRequestException;
+import com.shopping.electronic.store.model.Category;
+import com.shopping.electronic.store.model.Product;
+import com.shopping.electronic.store.repository.CategoryRepository;
+import com.shopping.electronic.store.repository.ProductRepository;
+import com.shopping.electronic.store.util.CursorPage;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Product query applies all given filters together and pages through the matches.
+ */
+@SpringBootTest
+class ProductQueryTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Category category;
+    private final Date now = new Date();
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(Category.builder()
+                .categoryId(UUID.randomUUID().toString())
+                .title("Query category")
+                .description("Query category")
+                .build());
+        List<Product> products = new ArrayList<>();
+        products.add(product("a", 100, true, true, 0));
+        products.add(product("b", 200, true, false, 1));
+        products.add(product("c", 300, false, true, 2));
+        products.add(product("d", 400, true, true, 3));
+        products.add(product("e", 500, true, true, 10));
+        productRepository.saveAll(products);
+    }
+
+    @Test
+    void allFiltersMustMatch() {
+        assertEquals(List.of("a", "b", "c", "d", "e"), titles(query().build()));
+        assertEquals(List.of("a", "d", "e"), titles(query().live(true).stock(true).build()));
+        assertEquals(List.of("b", "c", "d"), titles(query().minPrice(200).maxPrice(400).build()));
+        assertEquals(List.of("d"), titles(query().minPrice(200).maxPrice(400).live(true).stock(true).minDiscountedPrice(300).build()));
+        assertEquals(List.of("a", "b"), titles(query().addedFrom(daysAgo(2)).build()));
+        assertEquals(List.of("b", "c", "d"), titles(query().addedFrom(daysAgo(5)).addedTo(daysAgo(1)).build()));
+    }
+
+    @Test
+    void matchesArePagedWithCursor() {
+        ProductQuery productQuery = query().live(true).build();
+        CursorPage<ProductDto> first = productService.queryProducts(productQuery, null, 3, "price", "DESC");
+        CursorPage<ProductDto> second = productService.queryProducts(productQuery, first.getNextCursor(), 3, "price", "DESC");
+
+        assertEquals(List.of("e", "d", "b"), titles(first));
+        assertEquals(List.of("a"), titles(second));
+        assertEquals(false, second.isHasNext());
+    }
+
+    @Test
+    void emptyRangesAreRejected() {
+        assertThrows(BadApiRequestException.class, () -> titles(query().minPrice(300).maxPrice(200).build()));
+        assertThrows(BadApiRequestException.class, () -> titles(query().addedFrom(now).addedTo(daysAgo(1)).build()));
+    }
+
+    private ProductQuery.ProductQueryBuilder query() {
+        return ProductQuery.builder().categoryId(category.getCategoryId());
+    }
+
+    private List<String> titles(final ProductQuery productQuery) {
+        return titles(productService.queryProducts(productQuery, null, 10, "title", "ASC"));
+    }
+
+    private List<String> titles(final CursorPage<ProductDto> page) {
+        return page.getContent().stream().map(ProductDto::getTitle).collect(Collectors.toList());
+    }
+
+    private Date daysAgo(final int days) {
+        return new Date(now.getTime() - days * DAY);
+    }
+
+    // discounted price is price minus 50, added the given number of days (and an hour) ago
+    private Product product(final String title, final int price, final boolean live, final boolean stock, final int daysOld) {
+        return Product.builder()
+                .productId(UUID.randomUUID().toString())
+                .title(title)
+                .description("Query product " + title)
+                .price(price)
+                .discountedPrice(price - 50)
+                .quantity(stock ? 10 : 0)
+                .addedDate(new Date(now.getTime() - daysOld * DAY - DAY / 24))
+                .live(live)
+                .stock(stock)
+                .category(category)
+                .build();
+    }
+}
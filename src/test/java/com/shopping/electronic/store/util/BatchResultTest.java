@@ -0,0 +1,58 @@
+package com.shopping.electronic.store.util;
+
+import com.shopping.electronic.store.exception.BadApiRequestException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Found entities keep request order, unknown ids are listed as missing, everything is loaded in one call.
+ */
+class BatchResultTest {
+
+    private static final Map<String, String> NAMES = Map.of("a", "Alice", "b", "Bob", "c", "Carol");
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void foundEntitiesKeepRequestOrder() {
+        BatchResult<String> result = lookup(List.of("c", "x", "A", "b", "c"), 10);
+
+        assertEquals(List.of("Carol", "Alice", "Bob"), result.getContent());
+        assertEquals(List.of("x"), result.getMissingIds());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void resultIsMapped() {
+        BatchResult<Integer> result = lookup(List.of("a", "y"), 10).map(String::length);
+
+        assertEquals(List.of(5), result.getContent());
+        assertEquals(List.of("y"), result.getMissingIds());
+    }
+
+    @Test
+    void emptyAndOversizedRequestsAreRejected() {
+        assertThrows(BadApiRequestException.class, () -> lookup(List.of(), 10));
+        assertThrows(BadApiRequestException.class, () -> lookup(List.of("a", "b", "c"), 2));
+        assertEquals(0, loads.get());
+    }
+
+    // entities are names, their id is the lower-cased first letter
+    private BatchResult<String> lookup(final List<String> ids, final int maxIds) {
+        return BatchResult.lookup(ids, maxIds, this::load, name -> name.substring(0, 1).toLowerCase());
+    }
+
+    private List<String> load(final Collection<String> ids) {
+        loads.incrementAndGet();
+        return ids.stream().map(id -> NAMES.get(id.toLowerCase())).filter(name -> name != null).collect(Collectors.toList());
+    }
+}
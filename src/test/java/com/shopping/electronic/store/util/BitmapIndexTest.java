@@ -0,0 +1,60 @@
+package com.shopping.electronic.store.util;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts follow added, changed and removed items, a facet's own filter is not applied to its counts.
+ */
+class BitmapIndexTest {
+
+    private final BitmapIndex index = new BitmapIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.put("tv", Map.of("category", "video", "stock", "true"));
+        index.put("projector", Map.of("category", "video", "stock", "false"));
+        index.put("speaker", Map.of("category", "audio", "stock", "true"));
+    }
+
+    @Test
+    void countsIntersectFilters() {
+        assertEquals(3, index.count(Map.of()));
+        assertEquals(1, index.count(Map.of("category", "video", "stock", "true")));
+        assertEquals(0, index.count(Map.of("category", "gaming")));
+        assertEquals(0, index.count(Map.of("color", "red")));
+    }
+
+    @Test
+    void facetCountsIgnoreOwnFilter() {
+        Map<String, Map<String, Integer>> counts = index.facetCounts(Map.of("category", "video", "stock", "true"));
+
+        assertEquals(Map.of("video", 1, "audio", 1), counts.get("category"));
+        assertEquals(Map.of("true", 1, "false", 1), counts.get("stock"));
+    }
+
+    @Test
+    void changedAndRemovedItemsAreCountedAgain() {
+        index.put("projector", Map.of("category", "video", "stock", "true"));
+        index.remove("speaker");
+        index.remove("missing");
+        index.put("headphones", Map.of("category", "audio"));
+
+        assertEquals(2, index.count(Map.of("stock", "true")));
+        assertEquals(Map.of("true", 2), index.facetCounts(Map.of()).get("stock"));
+        assertEquals(Map.of("video", 2, "audio", 1), index.facetCounts(Map.of()).get("category"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void replaceAllDropsPreviousItems() {
+        index.replaceAll(Map.of("radio", Map.of("category", "audio")));
+
+        assertEquals(1, index.count(Map.of()));
+        assertEquals(Map.of("audio", 1), index.facetCounts(Map.of()).get("category"));
+    }
+}
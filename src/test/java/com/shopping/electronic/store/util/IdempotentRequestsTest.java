@@ -0,0 +1,102 @@
+package com.shopping.electronic.store.util;
+
+import com.shopping.electronic.store.exception.BadApiRequestException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A key runs its request once, also for concurrent duplicates, until the request fails.
+ */
+class IdempotentRequestsTest {
+
+    private final IdempotentRequests<String> requests = new IdempotentRequests<>(60, 1000);
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void retryGetsFirstResult() {
+        assertEquals("order-1", requests.execute("key", "request", () -> "order-" + executions.incrementAndGet()));
+        assertEquals("order-1", requests.execute("key", "request", () -> "order-" + executions.incrementAndGet()));
+        assertEquals("order-2", requests.execute("other key", "request", () -> "order-" + executions.incrementAndGet()));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void concurrentDuplicatesRunOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> duplicates = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            duplicates.add(executor.submit(() -> requests.execute("key", "request", () -> {
+                executions.incrementAndGet();
+                await(release);
+                return "order";
+            })));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<String> duplicate : duplicates) {
+            assertEquals("order", duplicate.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void failedRequestCanBeRetried() {
+        assertThrows(IllegalStateException.class, () -> requests.execute("key", "request", () -> {
+            throw new IllegalStateException("cart is empty");
+        }));
+
+        assertEquals("order", requests.execute("key", "request", () -> "order"));
+    }
+
+    @Test
+    void requestFailingWithErrorCanBeRetried() {
+        assertThrows(AssertionError.class, () -> requests.execute("key", "request", () -> {
+            throw new AssertionError("out of memory");
+        }));
+
+        assertEquals("order", requests.execute("key", "request", () -> "order"));
+    }
+
+    @Test
+    void keyOfDifferentRequestIsRejected() {
+        requests.execute("key", "request", () -> "order");
+
+        assertThrows(BadApiRequestException.class, () -> requests.execute("key", "other request", () -> "other order"));
+    }
+
+    @Test
+    void keyOfRequestWithSameHashCodeIsRejected() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        requests.execute("key", "Aa", () -> "order");
+
+        assertThrows(BadApiRequestException.class, () -> requests.execute("key", "BB", () -> "other order"));
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
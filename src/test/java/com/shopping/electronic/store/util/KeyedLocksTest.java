@@ -0,0 +1,83 @@
+package com.shopping.electronic.store.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Holders of one key exclude each other, other keys are never blocked and unused locks are dropped.
+ */
+class KeyedLocksTest {
+
+    private final KeyedLocks locks = new KeyedLocks();
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void otherKeysAreNotBlocked() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> holder = CompletableFuture.supplyAsync(() -> locks.withLock("user-a", () -> {
+            locked.countDown();
+            await(release);
+            return null;
+        }), executor);
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture<String> otherKey = CompletableFuture.supplyAsync(() -> locks.withLock("user-b", () -> "done"), executor);
+        assertEquals("done", otherKey.get(10, TimeUnit.SECONDS));
+
+        CompletableFuture<String> sameKey = CompletableFuture.supplyAsync(() -> locks.withLock("user-a", () -> "done"), executor);
+        Thread.sleep(100);
+        assertFalse(sameKey.isDone());
+
+        release.countDown();
+        holder.get(10, TimeUnit.SECONDS);
+        assertEquals("done", sameKey.get(10, TimeUnit.SECONDS));
+        assertEquals(0, locks.size());
+    }
+
+    @Test
+    void holdersOfOneKeyExcludeEachOther() throws Exception {
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        CompletableFuture<?>[] callers = new CompletableFuture<?>[8];
+        for (int i = 0; i < callers.length; i++) {
+            callers[i] = CompletableFuture.runAsync(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    locks.withLock("user", () -> {
+                        maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                        inside.decrementAndGet();
+                        return null;
+                    });
+                }
+            }, executor);
+        }
+        CompletableFuture.allOf(callers).get(30, TimeUnit.SECONDS);
+
+        assertEquals(1, maxInside.get());
+        assertEquals(0, locks.size());
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
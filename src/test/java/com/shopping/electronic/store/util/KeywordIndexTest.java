@@ -0,0 +1,75 @@
+package com.shopping.electronic.store.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Query tokens match as prefixes, exact and shorter matches rank first, removed documents are not found.
+ */
+class KeywordIndexTest {
+
+    private final KeywordIndex index = new KeywordIndex();
+
+    @Test
+    void everyQueryTokenMatchesAsPrefix() {
+        index.put("1", "Samsung Galaxy Phone");
+        index.put("2", "Galaxy Tab");
+        index.put("3", "Pixel Phone");
+
+        assertEquals(Arrays.asList("2", "1"), index.search("gal", 0, 10));
+        assertEquals(Collections.singletonList("1"), index.search("GAL pho", 0, 10));
+        assertEquals(Collections.emptyList(), index.search("gal pix", 0, 10));
+    }
+
+    @Test
+    void exactMatchesRankAbovePrefixMatches() {
+        index.put("1", "Phones case");
+        index.put("2", "Phone");
+        index.put("3", "Phone charger");
+
+        assertEquals(Arrays.asList("2", "3", "1"), index.search("phone", 0, 10));
+    }
+
+    @Test
+    void removedAndReplacedTextIsNotFound() {
+        index.put("1", "Phone case");
+        index.put("2", "Phone");
+        index.put("3", "Phone charger");
+
+        index.remove("2");
+        index.put("3", "Charger");
+
+        assertEquals(Collections.singletonList("1"), index.search("phone", 0, 10));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void pagesFollowRanking() {
+        List<String> all = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            index.put("id" + i, "Item " + i);
+            all.add("id" + i);
+        }
+
+        assertEquals(all.subList(0, 10), index.search("item", 0, 10));
+        assertEquals(all.subList(10, 20), index.search("item", 1, 10));
+        assertEquals(all.subList(20, 25), index.search("item", 2, 10));
+        assertEquals(Collections.emptyList(), index.search("item", 3, 10));
+    }
+
+    @Test
+    void lettersOfAnyScriptAreTokens() {
+        index.put("1", "Café Überraschung");
+        index.put("2", "Телефон Nokia");
+
+        assertEquals(Collections.singletonList("1"), index.search("über", 0, 10));
+        assertEquals(Collections.singletonList("1"), index.search("café", 0, 10));
+        assertEquals(Collections.singletonList("2"), index.search("тел", 0, 10));
+    }
+}
@@ -0,0 +1,111 @@
+package com.shopping.electronic.store.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Concurrent loads of one key run once and share result or failure, later loads run again.
+ */
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SingleFlight<Object> singleFlight = new SingleFlight<>("test");
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentLoadsShareOneResult() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Object>> callers = startCallers(() -> {
+            await(release);
+            return new Object();
+        });
+        awaitAllCallers();
+        release.countDown();
+
+        Object first = callers.get(0).get(10, TimeUnit.SECONDS);
+        for (Future<Object> caller : callers) {
+            assertSame(first, caller.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        singleFlight.bindTo(registry);
+        assertEquals(1, registry.get("single.flight.loads").tag("name", "test").functionCounter().count());
+        assertEquals(CALLERS - 1, registry.get("single.flight.coalesced").functionCounter().count());
+        assertEquals((CALLERS - 1) / (double) CALLERS, registry.get("single.flight.coalescing.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void waitersGetFailureOfTheLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Object>> callers = startCallers(() -> {
+            await(release);
+            throw new IllegalStateException("not found");
+        });
+        awaitAllCallers();
+        release.countDown();
+
+        for (Future<Object> caller : callers) {
+            Exception ex = assertThrows(Exception.class, () -> caller.get(10, TimeUnit.SECONDS));
+            assertEquals(IllegalStateException.class, ex.getCause().getClass());
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void finishedLoadIsNotKept() {
+        singleFlight.load("key", () -> loads.incrementAndGet());
+        singleFlight.load("key", () -> loads.incrementAndGet());
+
+        assertEquals(2, loads.get());
+    }
+
+    private List<Future<Object>> startCallers(final Supplier<Object> loader) {
+        List<Future<Object>> callers = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            callers.add(executor.submit(() -> singleFlight.load("key", () -> {
+                loads.incrementAndGet();
+                return loader.get();
+            })));
+        }
+        return callers;
+    }
+
+    // every caller but the loading one is waiting for the load
+    private void awaitAllCallers() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (singleFlight.coalescingRatio() < (CALLERS - 1) / (double) CALLERS && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.shopping.electronic.store.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Items stay sorted while they are added, moved and removed, also many at once, pages are slices in either direction.
+ */
+class SortedListingTest {
+
+    // "id:value", sorted by value then id
+    private final Comparator<String> order =
+            Comparator.comparing((String item) -> Integer.parseInt(item.split(":")[1])).thenComparing(item -> item.split(":")[0]);
+    private final SortedListing<String> listing = new SortedListing<>(order, item -> item.split(":")[0]);
+
+    @Test
+    void itemsAreKeptSorted() {
+        listing.replaceAll(Arrays.asList("a:5", "b:1", "c:3"));
+        listing.put("d:4");
+        listing.put("a:0");
+        listing.put("e:3");
+        listing.remove("c");
+        listing.remove("missing");
+
+        assertEquals(Arrays.asList("a:0", "b:1", "e:3", "d:4"), listing.slice(0, 10, false));
+        assertEquals(4, listing.size());
+    }
+
+    @Test
+    void changesMadeTogetherKeepItemsSorted() {
+        // id -> item, sorted separately as expected listing
+        Map<String, String> all = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            all.put(String.valueOf(i), i + ":" + i % 7);
+        }
+        listing.replaceAll(all.values());
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            List<String> changed = new ArrayList<>();
+            List<String> removed = new ArrayList<>();
+            for (int id = random.nextInt(5); id < 250; id += 1 + random.nextInt(20)) {
+                if (random.nextInt(4) == 0) {
+                    removed.add(String.valueOf(id));
+                } else {
+                    // same value as before for some, moved or new for others
+                    changed.add(id + ":" + random.nextInt(7));
+                }
+            }
+            listing.update(changed, removed);
+            changed.forEach(item -> all.put(item.split(":")[0], item));
+            removed.forEach(all::remove);
+
+            List<String> expected = new ArrayList<>(all.values());
+            expected.sort(order);
+            assertEquals(expected, listing.slice(0, 300, false));
+        }
+    }
+
+    @Test
+    void pagesAreSlicesInBothDirections() {
+        listing.replaceAll(Arrays.asList("a:1", "b:2", "c:3", "d:4", "e:5"));
+
+        assertEquals(Arrays.asList("c:3", "d:4"), listing.slice(2, 2, false));
+        assertEquals(Arrays.asList("e:5", "d:4"), listing.slice(0, 2, true));
+        assertEquals(List.of("a:1"), listing.slice(4, 2, true));
+        assertTrue(listing.slice(5, 2, false).isEmpty());
+    }
+}
@@ -0,0 +1,50 @@
+package com.shopping.electronic.store.util;
+
+import com.shopping.electronic.store.model.BinaryIdType;
+
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Time-ordered ids are increasing in text and binary form, also past the per millisecond counter.
+ */
+class TimeOrderedIdGeneratorTest {
+
+    private final TimeOrderedIdGenerator idGenerator = new TimeOrderedIdGenerator();
+
+    @Test
+    void idsAreIncreasingVersion7Uuids() {
+        String previous = idGenerator.nextId();
+        byte[] previousBytes = BinaryIdType.toBytes(previous);
+        for (int i = 0; i < 20000; i++) {
+            String id = idGenerator.nextId();
+            byte[] bytes = BinaryIdType.toBytes(id);
+            assertTrue(id.compareTo(previous) > 0, id + " after " + previous);
+            assertTrue(Arrays.compareUnsigned(bytes, previousBytes) > 0, id + " after " + previous);
+            assertEquals(7, UUID.fromString(id).version());
+            assertEquals(2, UUID.fromString(id).variant());
+            previous = id;
+            previousBytes = bytes;
+        }
+    }
+
+    @Test
+    void idsRoundTripThroughBinaryForm() {
+        String legacyId = UUID.randomUUID().toString();
+        byte[] bytes = BinaryIdType.toBytes(legacyId);
+
+        assertEquals(16, bytes.length);
+        assertEquals(legacyId, BinaryIdType.fromBytes(bytes));
+        assertArrayEquals(bytes, BinaryIdType.toBytes(BinaryIdType.fromBytes(bytes)));
+        assertNull(BinaryIdType.toBytes("not-an-id"));
+        assertEquals(Types.BINARY, new BinaryIdType().getSqlTypeDescriptor().getSqlType());
+    }
+}